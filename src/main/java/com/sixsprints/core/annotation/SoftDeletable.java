@@ -0,0 +1,19 @@
+package com.sixsprints.core.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an entity whose deletes only flag the document as deleted. The generic services then
+ * leave flagged documents out of every read, and the non-unique indexes of the entity are created
+ * as partial indexes covering only the live documents.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SoftDeletable {
+
+}
@@ -13,6 +13,8 @@ import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.datatype.jsr310.deser.LocalTimeDeserializer;
 import com.sixsprints.core.converters.LocalTimeSerializerAsString;
+import com.sixsprints.core.generic.read.IndexAdvisor;
+import com.sixsprints.core.generic.read.QueryAnalyzer;
 import com.sixsprints.core.utils.DateUtil;
 
 import jakarta.validation.Validation;
@@ -46,6 +48,16 @@ public class ParentBeans {
     return validator;
   }
 
+  @Bean
+  protected QueryAnalyzer queryAnalyzer() {
+    return new QueryAnalyzer();
+  }
+
+  @Bean
+  protected IndexAdvisor indexAdvisor() {
+    return new IndexAdvisor();
+  }
+
   protected SimpleModule module() {
     SimpleModule module = new SimpleModule();
     module.addSerializer(LocalTime.class, LocalTimeSerializerAsString.INSTANCE);
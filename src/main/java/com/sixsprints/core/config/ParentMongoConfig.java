@@ -9,10 +9,14 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoManagedTypes;
 import org.springframework.data.mongodb.MongoTransactionManager;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
 import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
 import com.mongodb.client.MongoClient;
@@ -36,11 +40,31 @@ public class ParentMongoConfig extends AbstractMongoClientConfiguration {
   @Value(value = "${spring.data.mongodb.database:}")
   private String database;
 
+  @Value(value = "${soft.delete.backfill.enabled:true}")
+  private boolean softDeleteBackfill;
+
   @Bean
   protected MongoTransactionManager transactionManager(MongoDatabaseFactory dbFactory) {
     return new MongoTransactionManager(dbFactory);
   }
 
+  @Bean
+  protected SoftDeleteEventListener softDeleteEventListener() {
+    return new SoftDeleteEventListener();
+  }
+
+  @Bean
+  protected SoftDeleteIndexCreator softDeleteIndexCreator(MongoMappingContext mongoMappingContext,
+      MongoTemplate mongoTemplate) {
+    return new SoftDeleteIndexCreator(mongoMappingContext, mongoTemplate, autoIndexCreation());
+  }
+
+  @Bean
+  protected SoftDeleteBackfill softDeleteBackfill(MongoOperations mongoTemplate,
+      MongoMappingContext mongoMappingContext) {
+    return new SoftDeleteBackfill(mongoTemplate, mongoMappingContext, softDeleteBackfill());
+  }
+
   @Bean
   @Override
   public MongoClient mongoClient() {
@@ -73,6 +97,29 @@ public class ParentMongoConfig extends AbstractMongoClientConfiguration {
     return true;
   }
 
+  /**
+   * Whether {@link SoftDeleteBackfill} sets {@code deleted: false} on legacy documents of soft
+   * deletable entities at startup. From {@code soft.delete.backfill.enabled}.
+   */
+  protected boolean softDeleteBackfill() {
+    return softDeleteBackfill;
+  }
+
+  /**
+   * Turns off Spring Data's automatic index creation on the mapping context, since
+   * {@link SoftDeleteIndexCreator} creates the indexes instead when {@link #autoIndexCreation()}
+   * is on.
+   */
+  @Bean
+  @Override
+  public MongoMappingContext mongoMappingContext(MongoCustomConversions customConversions,
+      MongoManagedTypes mongoManagedTypes) {
+    MongoMappingContext mappingContext =
+        super.mongoMappingContext(customConversions, mongoManagedTypes);
+    mappingContext.setAutoIndexCreation(false);
+    return mappingContext;
+  }
+
   @Bean
   @Primary
   MappingMongoConverter mongoConverter(MappingMongoConverter mongoConverter) {
@@ -0,0 +1,74 @@
+package com.sixsprints.core.config;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.sixsprints.core.annotation.SoftDeletable;
+import com.sixsprints.core.domain.AbstractMongoEntity;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sets {@code deleted: false} on the documents of {@code @SoftDeletable} entities that have no
+ * {@code deleted} field, once the application context is refreshed. Such documents were written
+ * before the entity became soft deletable; the generic reads filter on {@code deleted: false}, so
+ * that the partial indexes can serve them, and would otherwise never see these documents.
+ */
+@Slf4j
+public class SoftDeleteBackfill implements ApplicationListener<ContextRefreshedEvent> {
+
+  private final MongoOperations mongo;
+
+  private final MongoMappingContext mappingContext;
+
+  private final boolean enabled;
+
+  private final AtomicBoolean done = new AtomicBoolean();
+
+  /**
+   * @param enabled whether the backfill runs on startup, as set by
+   *        {@link ParentMongoConfig#softDeleteBackfill()}
+   */
+  public SoftDeleteBackfill(MongoOperations mongo, MongoMappingContext mappingContext,
+      boolean enabled) {
+    this.mongo = mongo;
+    this.mappingContext = mappingContext;
+    this.enabled = enabled;
+  }
+
+  @Override
+  public void onApplicationEvent(ContextRefreshedEvent event) {
+    if (enabled && done.compareAndSet(false, true)) {
+      backfill();
+    }
+  }
+
+  /**
+   * Backfills every soft deletable collection and returns the number of documents updated.
+   */
+  public long backfill() {
+    Query legacy = Query.query(Criteria.where(AbstractMongoEntity.Fields.deleted).exists(false));
+    Update live = new Update().set(AbstractMongoEntity.Fields.deleted, false);
+    long total = 0;
+    for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+      if (!entity.isAnnotationPresent(SoftDeletable.class)) {
+        continue;
+      }
+      long updated = mongo.updateMulti(legacy, live, entity.getCollection()).getModifiedCount();
+      if (updated > 0) {
+        log.info("Set deleted: false on {} documents of {}", updated, entity.getCollection());
+      }
+      total += updated;
+    }
+    return total;
+  }
+
+}
@@ -0,0 +1,25 @@
+package com.sixsprints.core.config;
+
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+
+import com.sixsprints.core.annotation.SoftDeletable;
+import com.sixsprints.core.domain.AbstractMongoEntity;
+
+/**
+ * Writes {@code deleted: false} on every {@code @SoftDeletable} entity that does not say
+ * otherwise, so that live documents match the {@code deleted: false} filter of the reads and the
+ * partial indexes.
+ */
+public class SoftDeleteEventListener extends AbstractMongoEventListener<AbstractMongoEntity> {
+
+  @Override
+  public void onBeforeConvert(BeforeConvertEvent<AbstractMongoEntity> event) {
+    AbstractMongoEntity entity = event.getSource();
+    if (entity.getDeleted() == null
+        && entity.getClass().isAnnotationPresent(SoftDeletable.class)) {
+      entity.setDeleted(false);
+    }
+  }
+
+}
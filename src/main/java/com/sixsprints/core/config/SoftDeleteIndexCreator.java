@@ -0,0 +1,128 @@
+package com.sixsprints.core.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.mapping.context.MappingContextEvent;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexCreator;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver.IndexDefinitionHolder;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.util.TypeInformation;
+
+import com.sixsprints.core.annotation.SoftDeletable;
+import com.sixsprints.core.domain.AbstractMongoEntity;
+
+/**
+ * Creates the indexes of the mapped entities in place of Spring Data's automatic index creation,
+ * which {@link ParentMongoConfig} turns off on the mapping context. Entities are indexed as
+ * Spring Data would, except for {@code @SoftDeletable} ones:
+ * <ul>
+ * <li>every non-unique index is created as a partial index, named {@code <index>_live}, covering
+ * only documents with {@code deleted: false}, which the generic reads always filter on;</li>
+ * <li>a partial {@code dateDeleted} index over the tombstones is added, for the purge.</li>
+ * </ul>
+ * Unique indexes are left whole, so that a tombstone still holds on to its unique values.
+ */
+public class SoftDeleteIndexCreator implements ApplicationListener<MappingContextEvent<?, ?>> {
+
+  private static final String LIVE_SUFFIX = "_live";
+
+  private static final String TOMBSTONE_INDEX = "dateDeleted_tombstones";
+
+  private final MongoMappingContext mappingContext;
+
+  private final IndexResolver indexResolver;
+
+  private final MongoPersistentEntityIndexCreator indexCreator;
+
+  /**
+   * @param autoIndexCreation whether indexes are created at all, as set by
+   *        {@link ParentMongoConfig#autoIndexCreation()}
+   */
+  public SoftDeleteIndexCreator(MongoMappingContext mappingContext, MongoTemplate mongoTemplate,
+      boolean autoIndexCreation) {
+    this.mappingContext = mappingContext;
+    this.indexResolver = IndexResolver.create(mappingContext);
+    this.indexCreator = !autoIndexCreation ? null
+        : new MongoPersistentEntityIndexCreator(mappingContext, mongoTemplate::indexOps,
+            this::resolveIndexFor);
+  }
+
+  @Override
+  public void onApplicationEvent(MappingContextEvent<?, ?> event) {
+    if (indexCreator != null) {
+      indexCreator.onApplicationEvent(event);
+    }
+  }
+
+  private List<IndexDefinition> resolveIndexFor(TypeInformation<?> type) {
+    List<IndexDefinition> indexes = new ArrayList<>();
+    indexResolver.resolveIndexFor(type).forEach(indexes::add);
+    if (!mappingContext.getRequiredPersistentEntity(type)
+        .isAnnotationPresent(SoftDeletable.class)) {
+      return indexes;
+    }
+    List<IndexDefinition> live = new ArrayList<>();
+    for (IndexDefinition definition : indexes) {
+      Document options = definition.getIndexOptions();
+      if (options.getBoolean("unique", false)) {
+        live.add(definition);
+        continue;
+      }
+      Document partial = new Document(options);
+      partial.remove("sparse");
+      partial.put("name", name(definition) + LIVE_SUFFIX);
+      partial.put("partialFilterExpression",
+          new Document(AbstractMongoEntity.Fields.deleted, false));
+      live.add(holder(definition, new PartialIndex(definition.getIndexKeys(), partial)));
+    }
+    live.add(new PartialIndex(new Document(AbstractMongoEntity.Fields.dateDeleted, 1),
+        new Document("name", TOMBSTONE_INDEX).append("partialFilterExpression",
+            new Document(AbstractMongoEntity.Fields.deleted, true))));
+    return live;
+  }
+
+  private static IndexDefinition holder(IndexDefinition source, IndexDefinition definition) {
+    if (source instanceof IndexDefinitionHolder holder) {
+      return new IndexDefinitionHolder(holder.getPath(), definition, holder.getCollection());
+    }
+    return definition;
+  }
+
+  private static String name(IndexDefinition definition) {
+    String name = definition.getIndexOptions().getString("name");
+    if (name != null) {
+      return name;
+    }
+    StringBuilder generated = new StringBuilder();
+    for (Map.Entry<String, Object> key : definition.getIndexKeys().entrySet()) {
+      if (generated.length() > 0) {
+        generated.append('_');
+      }
+      generated.append(key.getKey()).append('_').append(key.getValue());
+    }
+    return generated.toString();
+  }
+
+  private record PartialIndex(Document indexKeys, Document indexOptions)
+      implements IndexDefinition {
+
+    @Override
+    public Document getIndexKeys() {
+      return indexKeys;
+    }
+
+    @Override
+    public Document getIndexOptions() {
+      return indexOptions;
+    }
+
+  }
+
+}
@@ -21,6 +21,10 @@ public final class ExceptionConstants {
   public static final String ENTITY_ALREADY_EXISTS = "exception.entity.already.exists";
   public static final String ENTITY_ALREADY_EXISTS_WITH_FIELD =
       "exception.entity.already.exists.with.field";
+  public static final String ENTITY_CONFLICT = "exception.entity.conflict";
+  public static final String ENTITY_SUPERSEDED_IN_BATCH = "exception.entity.superseded.in.batch";
+  public static final String ENTITY_DELETED = "exception.entity.deleted";
+  public static final String ENTITY_DUPLICATE_IN_BATCH = "exception.entity.duplicate.in.batch";
 
   // Authentication/Authorization exceptions
   public static final String NOT_AUTHENTICATED = "exception.not.authenticated";
@@ -1,16 +1,27 @@
 package com.sixsprints.core.controller;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.multipart.MultipartFile;
 import com.sixsprints.core.auth.BasicAuth;
 import com.sixsprints.core.auth.BasicPermissionEnum;
 import com.sixsprints.core.domain.AbstractMongoEntity;
+import com.sixsprints.core.dto.ImportSummary;
+import com.sixsprints.core.enums.ImportOperation;
 import com.sixsprints.core.exception.EntityAlreadyExistsException;
 import com.sixsprints.core.exception.EntityInvalidException;
 import com.sixsprints.core.exception.EntityNotFoundException;
@@ -18,6 +29,7 @@ import com.sixsprints.core.mapper.GenericCrudMapper;
 import com.sixsprints.core.service.GenericCrudService;
 import com.sixsprints.core.utils.RestResponse;
 import com.sixsprints.core.utils.RestUtil;
+import jakarta.servlet.http.HttpServletResponse;
 
 /**
  *
@@ -93,4 +105,52 @@ public abstract class AbstractCrudController<T extends AbstractMongoEntity, SD,
     return RestUtil.successResponse(crudService.bulkDeleteBySlug(slugs));
   }
 
+  /**
+   * Imports an uploaded CSV file. The response is newline delimited JSON, written while the import
+   * runs: one line per row error or warning, then the summary. Only upserts are applied; delete
+   * rows are reported as errors, since deleting requires the DELETE permission of
+   * {@link #importDeletes}.
+   */
+  @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+  @BasicAuth(permission = BasicPermissionEnum.UPDATE)
+  public void importCsv(@RequestParam MultipartFile file, HttpServletResponse response)
+      throws IOException {
+    importCsv(file, EnumSet.of(ImportOperation.UPSERT), response);
+  }
+
+  /**
+   * Imports the delete rows of an uploaded CSV file, answering like {@link #importCsv}. Upsert rows
+   * are reported as errors.
+   */
+  @PostMapping(value = "/import-delete", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+  @BasicAuth(permission = BasicPermissionEnum.DELETE)
+  public void importDeletes(@RequestParam MultipartFile file, HttpServletResponse response)
+      throws IOException {
+    importCsv(file, EnumSet.of(ImportOperation.DELETE), response);
+  }
+
+  private void importCsv(MultipartFile file, Set<ImportOperation> operations,
+      HttpServletResponse response) throws IOException {
+    response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    Writer writer = response.getWriter();
+    try {
+      ImportSummary summary = crudService.importCsv(
+          new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8), operations,
+          row -> writeLine(writer, row));
+      writeJsonLine(writer, summary);
+    } catch (UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+    writer.flush();
+  }
+
+  private void writeLine(Writer writer, Object value) {
+    try {
+      writeJsonLine(writer, value);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
 }
@@ -1,20 +1,55 @@
 package com.sixsprints.core.controller;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import com.sixsprints.core.auth.BasicAuth;
 import com.sixsprints.core.auth.BasicPermissionEnum;
 import com.sixsprints.core.domain.AbstractMongoEntity;
 import com.sixsprints.core.dto.FilterRequestDto;
+import com.sixsprints.core.dto.IndexAdvice;
 import com.sixsprints.core.dto.PageDto;
+import com.sixsprints.core.dto.QueryShapeStats;
+import com.sixsprints.core.enums.ExportFormat;
 import com.sixsprints.core.generic.read.GenericReadService;
 import com.sixsprints.core.mapper.GenericCrudMapper;
 import com.sixsprints.core.service.GenericCrudService;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+import com.sixsprints.core.utils.CsvWriter;
 import com.sixsprints.core.utils.RestResponse;
 import com.sixsprints.core.utils.RestUtil;
+import jakarta.servlet.http.HttpServletResponse;
 
 /**
  *
@@ -30,6 +65,19 @@ public abstract class AbstractReadController<T extends AbstractMongoEntity, SD,
 
   private GenericCrudMapper<T, DD> detailDtoMapper;
 
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Value("${export.max.rows:100000}")
+  private int exportMaxRows;
+
+  @Value("${export.flush.rows:500}")
+  private int exportFlushRows;
+
+  private volatile List<String> searchFields;
+
+  private volatile List<String> exportColumns;
+
   public AbstractReadController(GenericCrudService<T> service,
       GenericCrudMapper<T, SD> searchDtoMapper, GenericCrudMapper<T, DD> detailDtoMapper) {
     this.readService = service;
@@ -44,12 +92,263 @@ public abstract class AbstractReadController<T extends AbstractMongoEntity, SD,
         .successResponse(detailDtoMapper.toDto(readService.findOneBySlug(slug).orElse(null)));
   }
 
+  @GetMapping("/multi")
+  @BasicAuth(permission = BasicPermissionEnum.READ)
+  public ResponseEntity<RestResponse<Map<String, SD>>> findMulti(
+      @RequestParam(required = false) List<String> ids,
+      @RequestParam(required = false) List<String> slugs) {
+    Map<String, T> entities = CollectionUtils.isEmpty(ids) ? readService.findAllBySlugs(slugs)
+        : readService.findAllByIds(ids);
+    Map<String, SD> dtos = new LinkedHashMap<>();
+    entities.forEach((key, entity) -> dtos.put(key, searchDtoMapper.toDto(entity)));
+    return RestUtil.successResponse(dtos);
+  }
+
+  /**
+   * Query shapes recorded for this entity's collection by the query analyzer, the most expensive
+   * first. Empty unless {@code read.query.analyzer.enabled} is set.
+   */
+  @GetMapping("/query-stats")
+  @BasicAuth(permission = BasicPermissionEnum.READ)
+  public ResponseEntity<RestResponse<List<QueryShapeStats>>> queryStats() {
+    return RestUtil.successResponse(readService.queryShapeStats());
+  }
+
+  /**
+   * Indexes the index advisor suggests for this entity's collection, the most observed first.
+   * Empty unless {@code read.index.advisor.enabled} is set.
+   */
+  @GetMapping("/index-advice")
+  @BasicAuth(permission = BasicPermissionEnum.READ)
+  public ResponseEntity<RestResponse<List<IndexAdvice>>> indexAdvice() {
+    return RestUtil.successResponse(readService.indexAdvice());
+  }
+
   @PostMapping("/search")
   @BasicAuth(permission = BasicPermissionEnum.READ)
   public ResponseEntity<RestResponse<PageDto<SD>>> filter(
-      @RequestBody FilterRequestDto filterRequestDto) {
+      @RequestBody FilterRequestDto filterRequestDto,
+      @RequestParam(required = false) String after) {
+    if (StringUtils.hasText(after)) {
+      filterRequestDto.setAfter(after);
+    }
+    if (CollectionUtils.isEmpty(filterRequestDto.getIncludeFields())
+        && CollectionUtils.isEmpty(filterRequestDto.getExcludeFields())) {
+      filterRequestDto.setIncludeFields(searchFields());
+    }
     return RestUtil.successResponse(searchDtoMapper
         .pageEntityToPageDtoDto(readService.filterByFilterRequestDto(filterRequestDto)));
   }
 
+  /**
+   * Streams the rows matching the filter, mapped with the search mapper, as CSV or newline delimited
+   * JSON. Rows are read through a cursor and written to the response as they arrive, without a
+   * page or a count, so memory use does not grow with the export. The response is flushed every
+   * {@link #exportFlushRows()} rows; a slow client blocks the writes and with them the cursor.
+   * The request {@code size} is capped at {@link #exportMaxRows()}.
+   */
+  @PostMapping("/export")
+  @BasicAuth(permission = BasicPermissionEnum.READ)
+  public void export(@RequestBody FilterRequestDto filterRequestDto,
+      @RequestParam(defaultValue = "CSV") ExportFormat format, HttpServletResponse response)
+      throws IOException {
+    int maxRows = exportMaxRows();
+    if (maxRows > 0 && (filterRequestDto.getSize() <= 0 || filterRequestDto.getSize() > maxRows)) {
+      filterRequestDto.setSize(maxRows);
+    }
+    if (CollectionUtils.isEmpty(filterRequestDto.getIncludeFields())
+        && CollectionUtils.isEmpty(filterRequestDto.getExcludeFields())) {
+      filterRequestDto.setIncludeFields(searchFields());
+    }
+    boolean csv = ExportFormat.CSV.equals(format);
+    response.setContentType(csv ? "text/csv" : MediaType.APPLICATION_NDJSON_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+        .filename(exportFileName() + (csv ? ".csv" : ".ndjson")).build().toString());
+    Writer writer = response.getWriter();
+    CsvWriter csvWriter = new CsvWriter(writer);
+    List<String> columns = exportColumns(filterRequestDto);
+    Set<String> leafColumns = columns == null ? Set.of() : new HashSet<>(columns);
+    int flushRows = Math.max(1, exportFlushRows());
+    long written = 0;
+    try (Stream<T> entities = readService.streamByFilterRequestDto(filterRequestDto)) {
+      Iterator<T> iterator = entities.iterator();
+      while (iterator.hasNext()) {
+        SD dto = searchDtoMapper.toDto(iterator.next());
+        if (dto == null) {
+          continue;
+        }
+        if (!csv) {
+          writeJsonLine(writer, dto);
+        } else {
+          Map<String, Object> row = flatten(dto, leafColumns);
+          if (columns == null) {
+            columns = new ArrayList<>(row.keySet());
+          }
+          if (written == 0) {
+            csvWriter.writeRecord(columns);
+          }
+          List<Object> values = new ArrayList<>();
+          for (String column : columns) {
+            values.add(row.get(column));
+          }
+          csvWriter.writeRecord(values);
+        }
+        if (++written % flushRows == 0) {
+          writer.flush();
+        }
+      }
+    }
+    if (csv && written == 0 && columns != null) {
+      csvWriter.writeRecord(columns);
+    }
+    writer.flush();
+  }
+
+  /**
+   * Columns of a CSV export, as dotted paths into the search DTO. Defaults to the properties the
+   * search DTO type serializes, with nested objects expanded into their properties and maps and
+   * collections kept as single JSON columns, resolved once per controller. {@code null} takes the
+   * properties of the first exported row instead, leaving properties missing from that row out of
+   * the whole export.
+   */
+  protected List<String> exportColumns(FilterRequestDto filterRequestDto) {
+    List<String> columns = exportColumns;
+    if (columns == null) {
+      columns = dtoColumns();
+      exportColumns = columns;
+    }
+    return columns.isEmpty() ? null : columns;
+  }
+
+  /**
+   * Name of the exported file, without extension.
+   */
+  protected String exportFileName() {
+    return "export";
+  }
+
+  /**
+   * Most rows a single export returns. Defaults to the {@code export.max.rows} property; 0 removes
+   * the cap.
+   */
+  protected int exportMaxRows() {
+    return exportMaxRows;
+  }
+
+  /**
+   * Rows written between flushes of an export. Defaults to the {@code export.flush.rows} property.
+   */
+  protected int exportFlushRows() {
+    return exportFlushRows;
+  }
+
+  protected void writeJsonLine(Writer writer, Object value) throws IOException {
+    writer.write(objectMapper.writeValueAsString(value));
+    writer.write('\n');
+  }
+
+  /**
+   * Entity properties the search DTO is mapped from. When non-empty, {@link #filter} and
+   * {@link #export} load only these properties unless the request carries its own include/exclude
+   * list. Defaults to the fields of the search DTO that have a field of the same name on the entity,
+   * resolved once per controller; {@code null} when there are none, i.e. whole entities are loaded.
+   * Override when the mapper fills DTO properties from entity properties of another name, or return
+   * {@code null} to always load whole entities.
+   */
+  protected List<String> searchFields() {
+    List<String> fields = searchFields;
+    if (fields == null) {
+      fields = dtoFields();
+      searchFields = fields;
+    }
+    return fields.isEmpty() ? null : fields;
+  }
+
+  private List<String> dtoFields() {
+    Class<?>[] types =
+        GenericTypeResolver.resolveTypeArguments(getClass(), AbstractReadController.class);
+    if (types == null || types[0] == null || types[1] == null) {
+      return List.of();
+    }
+    List<Class<?>> hierarchy = new ArrayList<>();
+    Class<?> type = types[1];
+    while (type != null && type != Object.class) {
+      hierarchy.add(0, type);
+      type = type.getSuperclass();
+    }
+    Set<String> fields = new LinkedHashSet<>();
+    for (Class<?> dto : hierarchy) {
+      for (Field field : dto.getDeclaredFields()) {
+        if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()
+            && ReflectionUtils.findField(types[0], field.getName()) != null) {
+          fields.add(field.getName());
+        }
+      }
+    }
+    return List.copyOf(fields);
+  }
+
+  private List<String> dtoColumns() {
+    Class<?>[] types =
+        GenericTypeResolver.resolveTypeArguments(getClass(), AbstractReadController.class);
+    if (types == null || types[1] == null) {
+      return List.of();
+    }
+    List<String> columns = new ArrayList<>();
+    dtoColumns(objectMapper.constructType(types[1]), "", columns, new HashSet<>());
+    return List.copyOf(columns);
+  }
+
+  private void dtoColumns(JavaType type, String prefix, List<String> columns,
+      Set<Class<?>> visiting) {
+    visiting.add(type.getRawClass());
+    BeanDescription description = objectMapper.getSerializationConfig().introspect(type);
+    for (BeanPropertyDefinition property : description.findProperties()) {
+      if (!property.couldSerialize()) {
+        continue;
+      }
+      JavaType propertyType = property.getPrimaryType();
+      String column = prefix + property.getName();
+      if (isBean(propertyType) && !visiting.contains(propertyType.getRawClass())) {
+        dtoColumns(propertyType, column + ".", columns, visiting);
+      } else {
+        columns.add(column);
+      }
+    }
+    visiting.remove(type.getRawClass());
+  }
+
+  private boolean isBean(JavaType type) {
+    try {
+      return objectMapper.getSerializerProviderInstance()
+          .findValueSerializer(type) instanceof BeanSerializerBase;
+    } catch (JsonMappingException ex) {
+      return false;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> flatten(Object dto, Set<String> columns) throws IOException {
+    Map<String, Object> row = new LinkedHashMap<>();
+    flatten("", objectMapper.convertValue(dto, Map.class), columns, row);
+    return row;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void flatten(String prefix, Map<String, Object> values, Set<String> columns,
+      Map<String, Object> row) throws IOException {
+    for (Map.Entry<String, Object> entry : values.entrySet()) {
+      String column = prefix + entry.getKey();
+      Object value = entry.getValue();
+      if (value instanceof Map && !columns.contains(column)) {
+        flatten(column + ".", (Map<String, Object>) value, columns, row);
+      } else if (value instanceof Map || value instanceof Iterable) {
+        row.put(column, objectMapper.writeValueAsString(value));
+      } else {
+        row.put(column, value);
+      }
+    }
+  }
+
 }
@@ -47,6 +47,18 @@ public class AbstractMongoEntity implements Serializable {
   @LastModifiedBy
   private String lastModifiedBy;
 
+  /**
+   * Incremented by every update of a service with optimistic locking enabled; unset otherwise.
+   */
+  private Long version;
+
+  /**
+   * Set on {@code @SoftDeletable} entities: false while live, true once deleted.
+   */
+  private Boolean deleted;
+
+  private Long dateDeleted;
+
   public void copyEntityFrom(AbstractMongoEntity source) {
     this.id = source.id;
     this.dateCreated = source.dateCreated;
@@ -54,6 +66,9 @@ public class AbstractMongoEntity implements Serializable {
     this.slug = source.slug;
     this.createdBy = source.createdBy;
     this.lastModifiedBy = source.lastModifiedBy;
+    this.version = source.version;
+    this.deleted = source.deleted;
+    this.dateDeleted = source.dateDeleted;
   }
 
 }
@@ -0,0 +1,37 @@
+package com.sixsprints.core.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sixsprints.core.enums.UpdateAction;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of a batched bulk write: the entities that were written and the outcome of every input
+ * row, in input order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkResult<T> {
+
+  @Builder.Default
+  private List<T> written = new ArrayList<>();
+
+  @Builder.Default
+  private List<BulkRowResult> rows = new ArrayList<>();
+
+  public long count(UpdateAction action) {
+    return rows.stream().filter(row -> action.equals(row.getAction())).count();
+  }
+
+  public List<BulkRowResult> failures() {
+    return rows.stream().filter(row -> UpdateAction.INVALID.equals(row.getAction())).toList();
+  }
+
+}
@@ -0,0 +1,37 @@
+package com.sixsprints.core.dto;
+
+import java.util.List;
+
+import com.sixsprints.core.enums.UpdateAction;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one input row of a bulk write.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRowResult {
+
+  /**
+   * Position of the row in the input list.
+   */
+  private int index;
+
+  private UpdateAction action;
+
+  private String id;
+
+  private String slug;
+
+  /**
+   * Why the row was not written; empty unless the action is {@code INVALID}.
+   */
+  private List<String> errors;
+
+}
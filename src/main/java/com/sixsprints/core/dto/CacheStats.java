@@ -0,0 +1,38 @@
+package com.sixsprints.core.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Counters of a service's entity cache since it was created.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStats {
+
+  private long hits;
+
+  private long misses;
+
+  /**
+   * Entries dropped because the cache was full or the entry had expired.
+   */
+  private long evictions;
+
+  /**
+   * Entries dropped because the entity was written.
+   */
+  private long invalidations;
+
+  private int size;
+
+  public double getHitRatio() {
+    long lookups = hits + misses;
+    return lookups == 0 ? 0 : (double) hits / lookups;
+  }
+
+}
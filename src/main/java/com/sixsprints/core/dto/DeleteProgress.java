@@ -0,0 +1,29 @@
+package com.sixsprints.core.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of a chunked delete, reported after every batch.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeleteProgress {
+
+  private long deleted;
+
+  private int batches;
+
+  /**
+   * Highest {@code _id} deleted so far. Pass it as {@code resumeAfterId} to continue an interrupted
+   * delete without rescanning the documents before it.
+   */
+  private String lastId;
+
+  private boolean complete;
+
+}
@@ -0,0 +1,36 @@
+package com.sixsprints.core.dto;
+
+import com.sixsprints.core.enums.FieldOperator;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One atomic change of an operator-based patch, such as incrementing a counter or adding an
+ * element to a list.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FieldOperation {
+
+  /**
+   * Property path of the field, dotted for nested fields ({@code address.city}).
+   */
+  private String field;
+
+  private FieldOperator operator;
+
+  /**
+   * Operand of the operator; ignored for {@code UNSET} and a number for {@code INC}.
+   */
+  private Object value;
+
+  public static FieldOperation of(String field, FieldOperator operator, Object value) {
+    return new FieldOperation(field, operator, value);
+  }
+
+}
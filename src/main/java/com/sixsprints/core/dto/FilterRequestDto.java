@@ -5,6 +5,8 @@ import java.util.Map;
 
 import com.sixsprints.core.dto.filter.ColumnFilter;
 import com.sixsprints.core.dto.filter.SortModel;
+import com.sixsprints.core.enums.CountStrategy;
+import com.sixsprints.core.enums.PaginationMode;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -25,4 +27,33 @@ public class FilterRequestDto {
 
   private List<SortModel> sortModel;
 
+  /**
+   * OFFSET (default) pages with skip/limit. KEYSET seeks past the {@link #after} cursor instead, so
+   * deep pages cost the same as the first one. A non-empty {@link #after} implies KEYSET.
+   */
+  private PaginationMode paginationMode;
+
+  /**
+   * Opaque cursor returned as {@link PageDto#getNextCursor()} by the previous keyset page.
+   */
+  private String after;
+
+  /**
+   * Overrides the service's count strategy for this request. Keyset reads are not counted unless
+   * a strategy is set here or in the service.
+   */
+  private CountStrategy countStrategy;
+
+  /**
+   * Only these properties are loaded from the database. Cannot be combined with
+   * {@link #excludeFields}.
+   */
+  private List<String> includeFields;
+
+  /**
+   * These properties are not loaded from the database. Cannot be combined with
+   * {@link #includeFields}.
+   */
+  private List<String> excludeFields;
+
 }
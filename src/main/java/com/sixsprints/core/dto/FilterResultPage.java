@@ -0,0 +1,43 @@
+package com.sixsprints.core.dto;
+
+import java.util.List;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * {@link PageImpl} carrying the extra paging metadata produced by
+ * {@code filterByFilterRequestDto}.
+ */
+public class FilterResultPage<T> extends PageImpl<T> {
+
+  private static final long serialVersionUID = -2417381409263504538L;
+
+  private final boolean totalExact;
+
+  private final String nextCursor;
+
+  public FilterResultPage(List<T> content, Pageable pageable, long total, boolean totalExact,
+      String nextCursor) {
+    super(content, pageable, total);
+    this.totalExact = totalExact;
+    this.nextCursor = nextCursor;
+  }
+
+  /**
+   * @return false when {@link #getTotalElements()} is a lower bound or an estimate rather than an
+   *         exact count
+   */
+  public boolean isTotalExact() {
+    return totalExact;
+  }
+
+  /**
+   * @return the keyset cursor of the next page, or null when this is the last page or the page was
+   *         read in offset mode
+   */
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+}
@@ -0,0 +1,38 @@
+package com.sixsprints.core.dto;
+
+import java.util.List;
+
+import com.sixsprints.core.enums.ImportOperation;
+import com.sixsprints.core.enums.UpdateAction;
+import com.sixsprints.core.enums.UploadErrorType;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An error or warning raised by one row of a CSV import.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowReport {
+
+  /**
+   * Record number in the file; the header is row 1.
+   */
+  private long row;
+
+  private ImportOperation operation;
+
+  private UpdateAction action;
+
+  private UploadErrorType type;
+
+  private String slug;
+
+  private List<String> messages;
+
+}
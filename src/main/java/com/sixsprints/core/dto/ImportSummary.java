@@ -0,0 +1,41 @@
+package com.sixsprints.core.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Totals of a CSV import. The individual errors and warnings are streamed as
+ * {@link ImportRowReport}s while the import runs.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportSummary {
+
+  /**
+   * Data rows read, excluding the header.
+   */
+  private long rows;
+
+  private long created;
+
+  private long updated;
+
+  private long deleted;
+
+  /**
+   * Rows that matched a stored entity without changing it, or deletes of entities that do not
+   * exist.
+   */
+  private long ignored;
+
+  private long invalid;
+
+  private long warnings;
+
+  private String message;
+
+}
@@ -0,0 +1,50 @@
+package com.sixsprints.core.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A compound index that the observed filter/sort traffic of a collection would use but that does
+ * not exist yet.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexAdvice {
+
+  private String collection;
+
+  /**
+   * Index keys in equality, sort, range order, mapped to document field names; 1 is ascending and
+   * -1 descending.
+   */
+  private LinkedHashMap<String, Integer> keys;
+
+  /**
+   * Filter of the partial index to create, or null for a full index. Set to {@code deleted: false}
+   * on soft deletable collections.
+   */
+  private Map<String, Object> partialFilterExpression;
+
+  /**
+   * Number of observed queries this index would serve.
+   */
+  private long observations;
+
+  /**
+   * Share of the collection's observed queries this index would serve, between 0 and 1.
+   */
+  private double share;
+
+  /**
+   * The {@code IndexOperations} call that creates the index.
+   */
+  private String command;
+
+}
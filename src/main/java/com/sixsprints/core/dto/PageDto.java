@@ -1,4 +1,3 @@
-
 package com.sixsprints.core.dto;
 
 import java.io.Serializable;
@@ -26,6 +25,11 @@ public class PageDto<T> implements Serializable {
 
   private Long totalElements;
 
+  @Builder.Default
+  private Boolean totalExact = Boolean.TRUE;
+
+  private String nextCursor;
+
   @Builder.Default
   private List<T> content = new ArrayList<T>();
 
@@ -0,0 +1,54 @@
+package com.sixsprints.core.dto;
+
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Execution statistics of one query shape (collection, filter keys/operators and sort) observed
+ * by the query analyzer. The examined/returned figures come from the latest {@code explain}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueryShapeStats {
+
+  private String collection;
+
+  private String filterShape;
+
+  private String sortShape;
+
+  private long executions;
+
+  private long totalMillis;
+
+  private long maxMillis;
+
+  private long explains;
+
+  private long docsExamined;
+
+  private long keysExamined;
+
+  private long returned;
+
+  private double docsExaminedPerReturned;
+
+  private double keysExaminedPerReturned;
+
+  private boolean collectionScan;
+
+  private boolean inMemorySort;
+
+  private String winningPlan;
+
+  private String lastRequestId;
+
+  private Date lastExplainedAt;
+
+}
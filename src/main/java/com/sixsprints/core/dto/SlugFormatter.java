@@ -1,5 +1,7 @@
 package com.sixsprints.core.dto;
 
+import com.sixsprints.core.enums.SlugStrategy;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -17,4 +19,20 @@ public class SlugFormatter {
 
   private Long minimumSequenceNumber;
 
+  /**
+   * Number of sequence values each JVM reserves with one counter update and hands out locally.
+   * Null or 1 reserves a value per insert. Larger blocks remove the counter round trip from most
+   * inserts, but the unused values of a block are skipped when the application restarts and
+   * concurrent instances interleave their slugs.
+   */
+  private Integer sequenceBlockSize;
+
+  /**
+   * How the slug is generated. {@code SNOWFLAKE} and {@code OBJECT_ID} need no counter round trip
+   * and stay unique across instances; {@code collection}, {@code minimumSequenceNumber} and
+   * {@code sequenceBlockSize} only apply to {@code SEQUENCE}.
+   */
+  @Builder.Default
+  private SlugStrategy strategy = SlugStrategy.SEQUENCE;
+
 }
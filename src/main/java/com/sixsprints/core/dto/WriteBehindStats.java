@@ -0,0 +1,50 @@
+package com.sixsprints.core.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Counters of a service's write-behind buffer since it was created.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WriteBehindStats {
+
+  /**
+   * Entities waiting in the queue.
+   */
+  private int queueDepth;
+
+  private int capacity;
+
+  private long submitted;
+
+  private long written;
+
+  /**
+   * Entities whose insert failed, including rejected rows of a batch.
+   */
+  private long failed;
+
+  /**
+   * Entities rejected because the queue was full under the {@code DROP} policy.
+   */
+  private long dropped;
+
+  /**
+   * Entities inserted on the calling thread because the queue was full under the
+   * {@code CALLER_RUNS} policy.
+   */
+  private long callerRuns;
+
+  private long batches;
+
+  private double averageBatchSize;
+
+  private int maxBatchSize;
+
+}
@@ -0,0 +1,17 @@
+package com.sixsprints.core.enums;
+
+/**
+ * What a write-behind buffer does with a new entity when its queue is full.
+ */
+public enum BackpressurePolicy {
+
+  /** Wait until the writer frees a slot. */
+  BLOCK,
+
+  /** Reject the entity; its future fails with a {@code RejectedExecutionException}. */
+  DROP,
+
+  /** Insert the entity synchronously on the calling thread. */
+  CALLER_RUNS;
+
+}
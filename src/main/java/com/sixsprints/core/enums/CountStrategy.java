@@ -0,0 +1,20 @@
+package com.sixsprints.core.enums;
+
+/**
+ * How the total of a paged read is computed.
+ */
+public enum CountStrategy {
+
+  /** Full count of the filtered set. */
+  EXACT,
+
+  /** Count that stops at the configured cap; the total is a lower bound once the cap is hit. */
+  CAPPED,
+
+  /** Collection metadata count when there is no filter, exact count otherwise. */
+  ESTIMATED,
+
+  /** No count at all; one extra row is fetched to tell whether a next page exists. */
+  NONE;
+
+}
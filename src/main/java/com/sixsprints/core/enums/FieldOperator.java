@@ -0,0 +1,32 @@
+package com.sixsprints.core.enums;
+
+/**
+ * Update operator of a {@code FieldOperation}, applied by MongoDB without reading the document.
+ */
+public enum FieldOperator {
+
+  /** {@code $set} the field to the value. */
+  SET,
+
+  /** {@code $unset} the field; the value is ignored. */
+  UNSET,
+
+  /** {@code $inc} the field by the numeric value (negative to decrement). */
+  INC,
+
+  /** {@code $push} the value onto the array. */
+  PUSH,
+
+  /** {@code $addToSet}: append the value to the array unless it is already present. */
+  ADD_TO_SET,
+
+  /** {@code $pull} every element equal to the value from the array. */
+  PULL,
+
+  /** {@code $min}: set the field to the value if the value is lower. */
+  MIN,
+
+  /** {@code $max}: set the field to the value if the value is higher. */
+  MAX;
+
+}
@@ -0,0 +1,7 @@
+package com.sixsprints.core.enums;
+
+public enum PaginationMode {
+
+  OFFSET, KEYSET;
+
+}
@@ -0,0 +1,14 @@
+package com.sixsprints.core.enums;
+
+/**
+ * How a free-text {@code SearchColumnFilter} is turned into a MongoDB query.
+ */
+public enum SearchStrategy {
+
+  /** {@code $text} query against the collection's text index, ordered by relevance. */
+  TEXT_INDEX,
+
+  /** Case-sensitive anchored regex ({@code ^input}) per field, which can use a regular index. */
+  PREFIX;
+
+}
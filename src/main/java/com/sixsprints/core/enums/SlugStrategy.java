@@ -0,0 +1,20 @@
+package com.sixsprints.core.enums;
+
+/**
+ * How {@code GenericAbstractService} generates the slug of a new entity.
+ */
+public enum SlugStrategy {
+
+  /** Prefix plus the next value of the collection counter in {@code customsequences}. */
+  SEQUENCE,
+
+  /**
+   * Prefix plus a time-ordered 64-bit id (timestamp, node id, counter) generated in memory. The id
+   * is also stored as the entity's sequence.
+   */
+  SNOWFLAKE,
+
+  /** Prefix plus a base 36 code of a new ObjectId, generated in memory. No sequence is set. */
+  OBJECT_ID;
+
+}
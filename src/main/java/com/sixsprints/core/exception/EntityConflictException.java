@@ -0,0 +1,31 @@
+package com.sixsprints.core.exception;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+
+import com.sixsprints.core.constants.ExceptionConstants;
+
+import lombok.Builder;
+import lombok.Singular;
+
+/**
+ * Thrown when an optimistically locked update finds that the document was changed since it was
+ * read. Unchecked, so the update signatures stay unchanged when locking is switched on.
+ */
+public class EntityConflictException extends BaseRuntimeException {
+
+  private static final long serialVersionUID = -2317712085474129463L;
+
+  private static final String DEFAULT_MESSAGE = ExceptionConstants.ENTITY_CONFLICT;
+
+  private static final HttpStatus DEFAULT_HTTP_STATUS = HttpStatus.CONFLICT;
+
+  @Builder(builderMethodName = "childBuilder")
+  public EntityConflictException(HttpStatus httpStatus, String error, Object data,
+      @Singular List<Object> args) {
+    super(checkIfNull(httpStatus, DEFAULT_HTTP_STATUS), checkIfNull(error, DEFAULT_MESSAGE), data,
+        args);
+  }
+
+}
@@ -3,28 +3,41 @@ package com.sixsprints.core.generic;
 import static org.springframework.data.mongodb.core.FindAndModifyOptions.*;
 import static org.springframework.data.mongodb.core.query.Criteria.*;
 import static org.springframework.data.mongodb.core.query.Query.*;
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.data.mongodb.SessionSynchronization;
 import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
+import com.sixsprints.core.annotation.SoftDeletable;
 import com.sixsprints.core.constants.ExceptionConstants;
 import com.sixsprints.core.domain.AbstractMongoEntity;
 import com.sixsprints.core.domain.CustomSequence;
 import com.sixsprints.core.dto.MetaData;
 import com.sixsprints.core.dto.SlugFormatter;
+import com.sixsprints.core.enums.SlugStrategy;
 import com.sixsprints.core.exception.BaseRuntimeException;
 import com.sixsprints.core.exception.EntityAlreadyExistsException;
 import com.sixsprints.core.exception.EntityInvalidException;
 import com.sixsprints.core.exception.EntityNotFoundException;
 import com.sixsprints.core.repository.GenericCrudRepository;
+import com.sixsprints.core.utils.BeanWrapperUtil;
+import com.sixsprints.core.utils.SnowflakeIdGenerator;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
@@ -36,6 +49,17 @@ public abstract class GenericAbstractService<T extends AbstractMongoEntity> exte
 
   private static final String _ID = "_id";
 
+  private static final SequenceBlockAllocator SEQUENCE_BLOCKS = new SequenceBlockAllocator();
+
+  private static final int RANDOM_NODE_ID =
+      new SecureRandom().nextInt(SnowflakeIdGenerator.MAX_NODE_ID + 1);
+
+  private static final Map<Integer, SnowflakeIdGenerator> SNOWFLAKES = new ConcurrentHashMap<>();
+
+  private static final int SNOWFLAKE_CODE_LENGTH = 13;
+
+  private static final int OBJECT_ID_CODE_LENGTH = 19;
+
   @Autowired
   protected MongoOperations mongo;
 
@@ -48,9 +72,14 @@ public abstract class GenericAbstractService<T extends AbstractMongoEntity> exte
   @Value("${slug.padding.length:8}")
   private int slugPaddingLength;
 
+  @Value("${slug.snowflake.node.id:-1}")
+  private int snowflakeNodeId;
+
   @Autowired
   private MessageSource messageSource;
 
+  private volatile MongoOperations sequenceMongo;
+
   protected abstract GenericCrudRepository<T> repository();
 
   protected abstract MetaData<T> metaData();
@@ -64,21 +93,88 @@ public abstract class GenericAbstractService<T extends AbstractMongoEntity> exte
 
   protected abstract T findDuplicate(T entity);
 
+  /**
+   * Whether deletes only flag documents as deleted and reads leave flagged documents out. Defaults
+   * to whether the entity class is annotated with {@link SoftDeletable}.
+   */
+  protected boolean softDelete() {
+    return metaData().getClassType().isAnnotationPresent(SoftDeletable.class);
+  }
+
+  /**
+   * Restricts {@code criteria} to live documents when {@link #softDelete()} is on. The
+   * {@code deleted: false} predicate is what the partial indexes of soft deletable entities are
+   * filtered on, so they can serve the query; documents from before the entity became soft
+   * deletable get the field from {@link com.sixsprints.core.config.SoftDeleteBackfill}.
+   */
+  protected Criteria liveCriteria(Criteria criteria) {
+    if (!softDelete()) {
+      return criteria;
+    }
+    Criteria live = where(AbstractMongoEntity.Fields.deleted).is(false);
+    if (criteria.getCriteriaObject().isEmpty()) {
+      return live;
+    }
+    return new Criteria().andOperator(criteria, live);
+  }
+
   protected Long getNextSequence(String seqName, int size) {
-    CustomSequence counter = mongo.findAndModify(query(where(_ID).is(seqName)),
-        new Update().inc(SEQ, size), options().returnNew(true).upsert(true), CustomSequence.class);
-    return counter.getSeq();
+    return reserveSequence(mongo, seqName, size);
   }
 
   protected Long getNextSequence(String seqName) {
     return getNextSequence(seqName, 1);
   }
 
+  /**
+   * Reserves {@code size} consecutive values of the formatter's sequence and returns the last one,
+   * served from a locally held block when the formatter sets a {@code sequenceBlockSize}.
+   */
+  protected Long getNextSequence(SlugFormatter slugFromatter, int size) {
+    String seqName = slugFromatter.getCollection();
+    Integer blockSize = slugFromatter.getSequenceBlockSize();
+    if (blockSize == null || blockSize <= 1) {
+      return getNextSequence(seqName, size);
+    }
+    MongoOperations operations = sequenceOperations();
+    String key = operations.execute(db -> db.getName()) + "/"
+        + operations.getCollectionName(CustomSequence.class) + "/" + seqName;
+    return SEQUENCE_BLOCKS.allocate(key, size, blockSize,
+        n -> reserveSequence(operations, seqName, n));
+  }
+
+  /**
+   * The operations sequence blocks are reserved with: a copy of {@link #mongo} that never joins a
+   * transaction, so that rolling one back cannot undo the reservation of a block this JVM goes on
+   * handing out.
+   */
+  protected MongoOperations sequenceOperations() {
+    if (sequenceMongo == null) {
+      if (mongo instanceof MongoTemplate template) {
+        MongoTemplate nonTransactional =
+            new MongoTemplate(template.getMongoDatabaseFactory(), template.getConverter());
+        nonTransactional.setSessionSynchronization(SessionSynchronization.NEVER);
+        sequenceMongo = nonTransactional;
+      } else {
+        sequenceMongo = mongo;
+      }
+    }
+    return sequenceMongo;
+  }
+
+  private static Long reserveSequence(MongoOperations operations, String seqName, int size) {
+    CustomSequence counter = operations.findAndModify(query(where(_ID).is(seqName)),
+        new Update().inc(SEQ, size), options().returnNew(true).upsert(true), CustomSequence.class);
+    return counter.getSeq();
+  }
+
   protected void generateSlugIfRequired(T entity) {
     if (shouldOverwriteSlug(entity)) {
       SlugFormatter slugFromatter = slugFromatter(entity);
-      if (slugFromatter != null && slugFromatter.getCollection() != null) {
-        Long nextSequence = getNextSequence(slugFromatter.getCollection());
+      if (slugFromatter != null && !usesSequence(slugFromatter)) {
+        generateSlug(entity, slugFromatter);
+      } else if (slugFromatter != null && slugFromatter.getCollection() != null) {
+        Long nextSequence = getNextSequence(slugFromatter, 1);
         entity.setSlug(slug(entity, nextSequence, slugFromatter));
         entity.setSequence(nextSequence);
       }
@@ -93,8 +189,16 @@ public abstract class GenericAbstractService<T extends AbstractMongoEntity> exte
     if (slugFromatter == null) {
       return;
     }
+    if (!usesSequence(slugFromatter)) {
+      for (T entity : entities) {
+        if (shouldOverwriteSlug(entity)) {
+          generateSlug(entity, slugFromatter(entity));
+        }
+      }
+      return;
+    }
     int size = entities.size();
-    Long sequence = getNextSequence(slugFromatter.getCollection(), size);
+    Long sequence = getNextSequence(slugFromatter, size);
     int i = 1;
     for (T entity : entities) {
       if (shouldOverwriteSlug(entity)) {
@@ -105,12 +209,52 @@ public abstract class GenericAbstractService<T extends AbstractMongoEntity> exte
     }
   }
 
+  /**
+   * Sets the slug of a new entity whose formatter does not use the sequence collection. Override to
+   * plug in another generator; it must not need a database round trip to stay cheap on bulk paths.
+   */
+  protected void generateSlug(T entity, SlugFormatter slugFromatter) {
+    String prefix = slugFromatter.getPrefix() == null ? "" : slugFromatter.getPrefix();
+    if (slugFromatter.getStrategy() == SlugStrategy.SNOWFLAKE) {
+      long id = snowflake().nextId();
+      entity.setSlug(prefix + code(BigInteger.valueOf(id), SNOWFLAKE_CODE_LENGTH));
+      entity.setSequence(id);
+    } else {
+      BigInteger id = new BigInteger(1, new ObjectId().toByteArray());
+      entity.setSlug(prefix + code(id, OBJECT_ID_CODE_LENGTH));
+    }
+  }
+
+  /**
+   * Node id of the snowflake generator, from {@code slug.snowflake.node.id}. When unset, a random
+   * id is picked once per JVM, which makes a collision between two nodes unlikely but possible;
+   * give every instance its own id (for example a StatefulSet ordinal) to rule it out.
+   */
+  protected int snowflakeNodeId() {
+    return snowflakeNodeId < 0 ? RANDOM_NODE_ID : snowflakeNodeId;
+  }
+
   protected EntityAlreadyExistsException alreadyExistsException(T existingEntity) {
     return EntityAlreadyExistsException.childBuilder()
         .error(ExceptionConstants.ENTITY_ALREADY_EXISTS)
         .arg(metaData().getClassType().getSimpleName()).arg(existingEntity.getSlug()).build();
   }
 
+  /**
+   * Whether {@code entity} is the tombstone of a soft deleted document. Writes that match one fail
+   * with {@link #deletedException(AbstractMongoEntity)} instead of updating it, since the unique
+   * indexes still hold its values.
+   */
+  protected boolean isTombstone(T entity) {
+    return softDelete() && Boolean.TRUE.equals(entity.getDeleted());
+  }
+
+  protected EntityInvalidException deletedException(T tombstone) {
+    return EntityInvalidException.childBuilder().httpStatus(HttpStatus.CONFLICT)
+        .error(ExceptionConstants.ENTITY_DELETED)
+        .arg(metaData().getClassType().getSimpleName()).arg(tombstone.getSlug()).build();
+  }
+
   protected EntityAlreadyExistsException alreadyExistsExceptionWithField(String fieldName,
       Object fieldValue) {
     return EntityAlreadyExistsException.childBuilder()
@@ -135,22 +279,32 @@ public abstract class GenericAbstractService<T extends AbstractMongoEntity> exte
     return toHumanReadableErrors(violations);
   }
 
+  /**
+   * Validates only the given properties of {@code domain}. Nested paths such as
+   * {@code address.city} are validated on the nested bean; cascaded ({@code @Valid}) constraints
+   * of a property are not, so patch nested properties by their full path.
+   */
+  protected List<String> checkPropertyValidity(T domain, List<String> props) {
+    List<String> errors = new ArrayList<>();
+    for (String prop : props) {
+      int dot = prop.lastIndexOf('.');
+      Object bean = dot < 0 ? domain : BeanWrapperUtil.getValue(domain, prop.substring(0, dot));
+      if (bean == null) {
+        continue;
+      }
+      String parentPath = prop.substring(0, dot + 1);
+      validator.validateProperty(bean, prop.substring(dot + 1))
+          .forEach(violation -> errors.add(humanReadableError(parentPath, violation)));
+    }
+    return errors;
+  }
+
   protected List<String> toHumanReadableErrors(Set<ConstraintViolation<T>> violations) {
     if (violations == null || violations.isEmpty()) {
       return List.of();
     }
-    return violations.stream().map(violation -> {
-      String propertyPath = violation.getPropertyPath().toString();
-      String message = violation.getMessage();
-      Object invalidValue = violation.getInvalidValue();
-      String valuePart =
-          (invalidValue != null) ? " (was: '" + String.valueOf(invalidValue) + "')" : "";
-      if (propertyPath.isEmpty()) {
-        return message + valuePart;
-      } else {
-        return createViolationError(propertyPath, message, valuePart);
-      }
-    }).collect(Collectors.toList());
+    return violations.stream().map(violation -> humanReadableError("", violation))
+        .collect(Collectors.toList());
   }
 
   protected String createViolationError(String propertyPath, String message, String valuePart) {
@@ -207,6 +361,36 @@ public abstract class GenericAbstractService<T extends AbstractMongoEntity> exte
     }
   }
 
+  private String humanReadableError(String parentPath, ConstraintViolation<?> violation) {
+    String propertyPath = parentPath + violation.getPropertyPath().toString();
+    String message = violation.getMessage();
+    Object invalidValue = violation.getInvalidValue();
+    String valuePart =
+        (invalidValue != null) ? " (was: '" + String.valueOf(invalidValue) + "')" : "";
+    if (propertyPath.isEmpty()) {
+      return message + valuePart;
+    } else {
+      return createViolationError(propertyPath, message, valuePart);
+    }
+  }
+
+  private SnowflakeIdGenerator snowflake() {
+    return SNOWFLAKES.computeIfAbsent(snowflakeNodeId(), SnowflakeIdGenerator::new);
+  }
+
+  private static boolean usesSequence(SlugFormatter slugFromatter) {
+    return slugFromatter.getStrategy() == null
+        || slugFromatter.getStrategy() == SlugStrategy.SEQUENCE;
+  }
+
+  /**
+   * Upper case base 36 padded to a fixed length, so codes of the same strategy sort like the ids.
+   */
+  private static String code(BigInteger id, int length) {
+    return org.apache.commons.lang3.StringUtils.leftPad(id.toString(36).toUpperCase(), length,
+        '0');
+  }
+
   private boolean shouldOverwriteSlug(T entity) {
     return isNew(entity) && !StringUtils.hasText(entity.getSlug());
   }
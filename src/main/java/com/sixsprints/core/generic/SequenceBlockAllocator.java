@@ -0,0 +1,63 @@
+package com.sixsprints.core.generic;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Hands out sequence values from blocks reserved in the backing store (hi/lo allocation). A block
+ * of {@code blockSize} values is reserved with one counter increment and its values are then handed
+ * out locally with an atomic add, so concurrent inserts only reach the store once per block.
+ * Values reserved but not handed out are lost when the JVM stops, leaving gaps in the sequence;
+ * values stay unique and increase within a JVM, but several JVMs interleave their blocks.
+ */
+public class SequenceBlockAllocator {
+
+  private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+  /**
+   * Allocates {@code size} consecutive values of the sequence {@code name} and returns the last
+   * one.
+   *
+   * @param reserve atomically reserves the given number of values in the store and returns the last
+   *        of them; requests of at least {@code blockSize} values go to it directly
+   */
+  public long allocate(String name, int size, int blockSize, IntToLongFunction reserve) {
+    if (size >= blockSize) {
+      return reserve.applyAsLong(size);
+    }
+    while (true) {
+      Block block = blocks.get(name);
+      if (block != null) {
+        long last = block.next.addAndGet(size);
+        if (last <= block.end) {
+          return last;
+        }
+      }
+      refill(name, block, blockSize, reserve);
+    }
+  }
+
+  private synchronized void refill(String name, Block exhausted, int blockSize,
+      IntToLongFunction reserve) {
+    if (blocks.get(name) != exhausted) {
+      return;
+    }
+    long end = reserve.applyAsLong(blockSize);
+    blocks.put(name, new Block(end - blockSize, end));
+  }
+
+  private static final class Block {
+
+    private final AtomicLong next;
+
+    private final long end;
+
+    private Block(long start, long end) {
+      this.next = new AtomicLong(start);
+      this.end = end;
+    }
+  }
+
+}
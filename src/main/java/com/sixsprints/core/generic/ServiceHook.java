@@ -14,4 +14,8 @@ public class ServiceHook<T extends AbstractMongoEntity> {
 
   protected void postInsert(T entity) {}
 
+  protected void preDelete(T entity) {}
+
+  protected void postDelete(T entity) {}
+
 }
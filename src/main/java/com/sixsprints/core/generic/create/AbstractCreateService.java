@@ -1,17 +1,74 @@
 package com.sixsprints.core.generic.create;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.TypeInformation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+import com.mongodb.bulk.BulkWriteError;
+import com.sixsprints.core.constants.ExceptionConstants;
 import com.sixsprints.core.domain.AbstractMongoEntity;
+import com.sixsprints.core.dto.BulkResult;
+import com.sixsprints.core.dto.BulkRowResult;
+import com.sixsprints.core.dto.WriteBehindStats;
+import com.sixsprints.core.enums.BackpressurePolicy;
+import com.sixsprints.core.enums.UpdateAction;
+import com.sixsprints.core.exception.BaseException;
 import com.sixsprints.core.exception.EntityAlreadyExistsException;
 import com.sixsprints.core.exception.EntityInvalidException;
 import com.sixsprints.core.generic.delete.AbstractDeleteService;
+import com.sixsprints.core.utils.ApplicationContext;
+import com.sixsprints.core.utils.BeanWrapperUtil;
+import jakarta.annotation.PreDestroy;
 
 public abstract class AbstractCreateService<T extends AbstractMongoEntity>
     extends AbstractDeleteService<T> implements GenericCreateService<T> {
 
+  private static final Set<String> BASE_UNIQUE_FIELDS =
+      Set.of(AbstractMongoEntity.Fields.slug, AbstractMongoEntity.Fields.sequence);
+
+  @Value("${create.bulk.chunk.size:1000}")
+  private int bulkChunkSize;
+
+  @Value("${create.write.behind.capacity:10000}")
+  private int writeBehindCapacity;
+
+  @Value("${create.write.behind.batch.size:500}")
+  private int writeBehindBatchSize;
+
+  @Value("${create.write.behind.linger.ms:10}")
+  private long writeBehindLingerMillis;
+
+  @Value("${create.write.behind.backpressure:BLOCK}")
+  private BackpressurePolicy writeBehindBackpressure;
+
+  @Value("${create.write.behind.shutdown.timeout.ms:10000}")
+  private long writeBehindShutdownTimeoutMillis;
+
+  private volatile WriteBehindBuffer<T> writeBehindBuffer;
+
+  private volatile List<List<String>> duplicateKeys;
+
   @Override
   public T insertOne(T entity) throws EntityAlreadyExistsException, EntityInvalidException {
     assertValid(entity != null, "entity", entity);
@@ -22,6 +79,9 @@ public abstract class AbstractCreateService<T extends AbstractMongoEntity>
       throw validationException(errors);
     }
     T fromDB = findDuplicate(entity);
+    if (fromDB != null && isTombstone(fromDB)) {
+      throw deletedException(fromDB);
+    }
     if (fromDB != null) {
       throw alreadyExistsException(fromDB);
     }
@@ -44,4 +104,383 @@ public abstract class AbstractCreateService<T extends AbstractMongoEntity>
     return list;
   }
 
+  @Override
+  public BulkResult<T> bulkInsertBatched(List<T> entities) {
+    assertValid(entities != null, "entities", entities);
+    assertValid(entities.stream().noneMatch(Objects::isNull), "entities", entities);
+    BulkRowResult[] rows = new BulkRowResult[entities.size()];
+    List<T> written = new ArrayList<>();
+    int chunkSize = Math.max(1, bulkChunkSize());
+    for (int from = 0; from < entities.size(); from += chunkSize) {
+      int to = Math.min(entities.size(), from + chunkSize);
+      written.addAll(insertChunk(entities.subList(from, to), from, rows));
+    }
+    return BulkResult.<T>builder().written(written).rows(new ArrayList<>(Arrays.asList(rows)))
+        .build();
+  }
+
+  @Override
+  public CompletableFuture<T> insertOneAsync(T entity) {
+    assertValid(entity != null, "entity", entity);
+    List<String> errors = prepareInsert(entity);
+    if (!errors.isEmpty()) {
+      return CompletableFuture.failedFuture(rowException(errors));
+    }
+    AbstractMongoEntity currentUser = ApplicationContext.getCurrentUser();
+    if (entity.getCreatedBy() == null && currentUser != null) {
+      entity.setCreatedBy(userAuditField(currentUser));
+    }
+    return writeBehindBuffer().submit(entity);
+  }
+
+  @Override
+  public WriteBehindStats writeBehindStats() {
+    WriteBehindBuffer<T> buffer = writeBehindBuffer;
+    return buffer == null ? WriteBehindStats.builder().capacity(writeBehindCapacity()).build()
+        : buffer.stats();
+  }
+
+  /**
+   * Writes the queued entities before the service is destroyed, waiting up to
+   * {@code create.write.behind.shutdown.timeout.ms}.
+   */
+  @PreDestroy
+  public void flushWriteBehind() {
+    WriteBehindBuffer<T> buffer = writeBehindBuffer;
+    if (buffer != null) {
+      buffer.close(writeBehindShutdownTimeoutMillis);
+    }
+  }
+
+  /**
+   * Maximum number of entities queued by {@link #insertOneAsync(AbstractMongoEntity)}. Defaults to
+   * the {@code create.write.behind.capacity} property.
+   */
+  protected int writeBehindCapacity() {
+    return writeBehindCapacity;
+  }
+
+  /**
+   * Maximum number of queued entities inserted together. Defaults to the
+   * {@code create.write.behind.batch.size} property.
+   */
+  protected int writeBehindBatchSize() {
+    return writeBehindBatchSize;
+  }
+
+  /**
+   * How long the writer waits for more entities after the first one of a batch. Defaults to the
+   * {@code create.write.behind.linger.ms} property.
+   */
+  protected long writeBehindLingerMillis() {
+    return writeBehindLingerMillis;
+  }
+
+  /**
+   * What {@link #insertOneAsync(AbstractMongoEntity)} does when the queue is full. Defaults to the
+   * {@code create.write.behind.backpressure} property.
+   */
+  protected BackpressurePolicy writeBehindBackpressure() {
+    return writeBehindBackpressure;
+  }
+
+  private WriteBehindBuffer<T> writeBehindBuffer() {
+    WriteBehindBuffer<T> buffer = writeBehindBuffer;
+    if (buffer == null) {
+      synchronized (this) {
+        buffer = writeBehindBuffer;
+        if (buffer == null) {
+          buffer = new WriteBehindBuffer<>(metaData().getClassType().getSimpleName(),
+              writeBehindCapacity(), writeBehindBatchSize(), writeBehindLingerMillis(),
+              writeBehindBackpressure(), this::writeBehindBatch, this::postInsert);
+          writeBehindBuffer = buffer;
+        }
+      }
+    }
+    return buffer;
+  }
+
+  private List<Throwable> writeBehindBatch(List<T> entities) {
+    BulkRowResult[] rows = new BulkRowResult[entities.size()];
+    List<Integer> indexes = new ArrayList<>();
+    for (int i = 0; i < entities.size(); i++) {
+      indexes.add(i);
+    }
+    insertPrepared(new ArrayList<>(entities), indexes, rows);
+    List<Throwable> failures = new ArrayList<>();
+    for (BulkRowResult row : rows) {
+      failures.add(row.getAction() == UpdateAction.CREATE ? null : rowException(row.getErrors()));
+    }
+    return failures;
+  }
+
+  private EntityInvalidException rowException(List<String> errors) {
+    return EntityInvalidException.childBuilder().data(errors).error(errors.get(0)).build();
+  }
+
+  /**
+   * Number of rows validated, de-duplicated and written together by
+   * {@link #bulkInsertBatched(List)}. Defaults to the {@code create.bulk.chunk.size} property.
+   */
+  protected int bulkChunkSize() {
+    return bulkChunkSize;
+  }
+
+  /**
+   * Finds the existing duplicate of each entity, as {@link #findDuplicate(AbstractMongoEntity)}
+   * does for one. The returned list is aligned with the input, holding null where there is no
+   * duplicate. The default runs one query for the whole list, matching any of the
+   * {@link #duplicateKeys()} of the entities, and pairs the results up in memory by the first key
+   * that matches. Tombstones are returned like live documents, as their unique values still
+   * block the write; callers check them with {@link #isTombstone(AbstractMongoEntity)}.
+   */
+  protected List<T> findDuplicates(List<T> entities) {
+    List<List<String>> keys = duplicateKeys();
+    List<Criteria> clauses = new ArrayList<>();
+    for (List<String> key : keys) {
+      if (key.size() == 1) {
+        Set<Object> values = new LinkedHashSet<>();
+        entities.forEach(entity -> Optional.ofNullable(keyValues(entity, key))
+            .ifPresent(found -> values.add(found.get(0))));
+        if (!values.isEmpty()) {
+          clauses.add(Criteria.where(key.get(0)).in(values));
+        }
+        continue;
+      }
+      for (T entity : entities) {
+        List<Object> values = keyValues(entity, key);
+        if (values != null) {
+          Criteria clause = new Criteria();
+          for (int i = 0; i < key.size(); i++) {
+            clause.and(key.get(i)).is(values.get(i));
+          }
+          clauses.add(clause);
+        }
+      }
+    }
+    List<T> existing = clauses.isEmpty() ? List.of()
+        : mongo.find(new Query(new Criteria().orOperator(clauses)), metaData().getClassType());
+    List<T> duplicates = new ArrayList<>();
+    for (T entity : entities) {
+      duplicates.add(matchDuplicate(entity, keys, existing));
+    }
+    return duplicates;
+  }
+
+  /**
+   * The sets of properties that identify a duplicate, in order of precedence, as
+   * {@link #findDuplicate(AbstractMongoEntity)} checks them. Defaults to the properties of every
+   * unique index declared on the entity (single field or compound), then the slug. Override it when
+   * {@code findDuplicate} matches on other properties.
+   */
+  protected List<List<String>> duplicateKeys() {
+    List<List<String>> keys = duplicateKeys;
+    if (keys == null) {
+      keys = new ArrayList<>();
+      for (IndexDefinition index : IndexResolver.create(mongo.getConverter().getMappingContext())
+          .resolveIndexFor(TypeInformation.of(metaData().getClassType()))) {
+        List<String> fields = new ArrayList<>(index.getIndexKeys().keySet());
+        if (index.getIndexOptions().getBoolean("unique", false) && !keys.contains(fields)
+            && !BASE_UNIQUE_FIELDS.contains(fields.get(0))) {
+          keys.add(List.copyOf(fields));
+        }
+      }
+      keys.add(List.of(AbstractMongoEntity.Fields.slug));
+      keys = List.copyOf(keys);
+      duplicateKeys = keys;
+    }
+    return keys;
+  }
+
+  private T matchDuplicate(T entity, List<List<String>> keys, List<T> existing) {
+    for (List<String> key : keys) {
+      List<Object> values = keyValues(entity, key);
+      if (values == null) {
+        continue;
+      }
+      for (T candidate : existing) {
+        if (values.equals(keyValues(candidate, key))) {
+          return candidate;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * The values of the key's properties, or null when any of them is missing.
+   */
+  protected List<Object> keyValues(T entity, List<String> key) {
+    List<Object> values = new ArrayList<>(key.size());
+    for (String field : key) {
+      Object value;
+      try {
+        value = BeanWrapperUtil.getValue(entity, field);
+      } catch (BeansException ex) {
+        return null;
+      }
+      if (value == null) {
+        return null;
+      }
+      values.add(value);
+    }
+    return values;
+  }
+
+  private List<T> insertChunk(List<T> chunk, int offset, BulkRowResult[] rows) {
+    List<T> candidates = new ArrayList<>();
+    List<Integer> candidateRows = new ArrayList<>();
+    for (int i = 0; i < chunk.size(); i++) {
+      T entity = chunk.get(i);
+      List<String> errors = prepareInsert(entity);
+      if (errors.isEmpty()) {
+        candidates.add(entity);
+        candidateRows.add(offset + i);
+      } else {
+        rows[offset + i] = invalidRow(offset + i, entity, errors);
+      }
+    }
+    List<T> written = insertPrepared(candidates, candidateRows, rows);
+    written.forEach(this::postInsert);
+    return written;
+  }
+
+  /**
+   * Checks already enhanced and validated entities for duplicates, in the database and earlier in
+   * the batch, and inserts the rest with one
+   * unordered bulk insert, filling in their rows of {@code rows}. {@code postInsert} is left to the
+   * caller, so that write-behind can run it under the context of the thread that submitted the
+   * entity.
+   */
+  private List<T> insertPrepared(List<T> candidates, List<Integer> candidateRows,
+      BulkRowResult[] rows) {
+    List<T> toInsert = new ArrayList<>();
+    List<Integer> toInsertRows = new ArrayList<>();
+    List<T> duplicates = candidates.isEmpty() ? List.of() : findDuplicates(candidates);
+    Map<List<Object>, Integer> claimed = new HashMap<>();
+    for (int i = 0; i < candidates.size(); i++) {
+      T duplicate = duplicates.get(i);
+      Integer first =
+          duplicate == null ? claimKeys(claimed, candidates.get(i), candidateRows.get(i)) : null;
+      if (duplicate != null) {
+        BaseException ex = isTombstone(duplicate) ? deletedException(duplicate)
+            : alreadyExistsException(duplicate);
+        rows[candidateRows.get(i)] = invalidRow(candidateRows.get(i), candidates.get(i),
+            List.of(localisedMessage(ex.getError(), ex.getArguments())));
+      } else if (first != null) {
+        rows[candidateRows.get(i)] = invalidRow(candidateRows.get(i), candidates.get(i),
+            List.of(localisedMessage(ExceptionConstants.ENTITY_DUPLICATE_IN_BATCH,
+                List.of(first, metaData().getClassType().getSimpleName()))));
+      } else {
+        toInsert.add(candidates.get(i));
+        toInsertRows.add(candidateRows.get(i));
+      }
+    }
+    if (toInsert.isEmpty()) {
+      return List.of();
+    }
+
+    generateSlugIfRequired(toInsert);
+    setCreateAuditFields(toInsert);
+    List<String> writeErrors = new ArrayList<>(Collections.nCopies(toInsert.size(), null));
+    try {
+      mongo.bulkOps(BulkMode.UNORDERED, metaData().getClassType()).insert(toInsert).execute();
+    } catch (BulkOperationException ex) {
+      for (BulkWriteError error : ex.getErrors()) {
+        writeErrors.set(error.getIndex(), error.getMessage());
+      }
+    }
+
+    List<T> written = new ArrayList<>();
+    for (int i = 0; i < toInsert.size(); i++) {
+      T entity = toInsert.get(i);
+      int row = toInsertRows.get(i);
+      if (writeErrors.get(i) != null) {
+        rows[row] = invalidRow(row, entity, List.of(writeErrors.get(i)));
+        continue;
+      }
+      written.add(entity);
+      rows[row] = BulkRowResult.builder().index(row).action(UpdateAction.CREATE)
+          .id(entity.getId()).slug(entity.getSlug()).errors(List.of()).build();
+    }
+    return written;
+  }
+
+  /**
+   * Claims the {@link #duplicateKeys()} values of {@code entity} for {@code row} and returns the
+   * earlier row of the batch that already holds one of them, or null when none does.
+   */
+  private Integer claimKeys(Map<List<Object>, Integer> claimed, T entity, int row) {
+    List<List<Object>> identities = new ArrayList<>();
+    for (List<String> key : duplicateKeys()) {
+      List<Object> values = keyValues(entity, key);
+      if (values != null) {
+        identities.add(List.of(key, values));
+      }
+    }
+    for (List<Object> identity : identities) {
+      Integer first = claimed.get(identity);
+      if (first != null) {
+        return first;
+      }
+    }
+    identities.forEach(identity -> claimed.put(identity, row));
+    return null;
+  }
+
+  private List<String> prepareInsert(T entity) {
+    try {
+      enhanceEntity(entity);
+    } catch (RuntimeException ex) {
+      return List.of(String.valueOf(ex.getMessage()));
+    }
+    return validateInsert(entity);
+  }
+
+  /**
+   * Runs {@code preInsert} and the validation of one enhanced bulk row, returning its localised
+   * errors. Hook failures are reported as errors of the row rather than thrown.
+   */
+  protected List<String> validateInsert(T entity) {
+    try {
+      preInsert(entity);
+      return checkValidity(entity).stream().map(error -> localisedMessage(error, null))
+          .collect(Collectors.toList());
+    } catch (RuntimeException ex) {
+      return List.of(String.valueOf(ex.getMessage()));
+    }
+  }
+
+  /**
+   * Ids are assigned up front so that they are known after an unordered bulk insert; as that makes
+   * the entities look persisted to the auditing handler, the creation fields are set here.
+   */
+  protected void setCreateAuditFields(List<T> entities) {
+    long now = System.currentTimeMillis();
+    AbstractMongoEntity currentUser = ApplicationContext.getCurrentUser();
+    String auditor = currentUser == null ? null : userAuditField(currentUser);
+    for (T entity : entities) {
+      if (!StringUtils.hasText(entity.getId())) {
+        entity.setId(new ObjectId().toHexString());
+      }
+      if (entity.getDateCreated() == null) {
+        entity.setDateCreated(now);
+      }
+      if (entity.getCreatedBy() == null) {
+        entity.setCreatedBy(auditor);
+      }
+      entity.setDateModified(now);
+      entity.setLastModifiedBy(entity.getCreatedBy());
+    }
+  }
+
+  protected BulkRowResult invalidRow(int index, T entity, List<String> errors) {
+    return BulkRowResult.builder().index(index).action(UpdateAction.INVALID)
+        .slug(entity.getSlug()).errors(errors).build();
+  }
+
+  protected String userAuditField(AbstractMongoEntity currentUser) {
+    return currentUser.getSlug();
+  }
+
 }
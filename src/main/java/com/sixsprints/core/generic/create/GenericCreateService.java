@@ -1,6 +1,9 @@
 package com.sixsprints.core.generic.create;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import com.sixsprints.core.dto.BulkResult;
+import com.sixsprints.core.dto.WriteBehindStats;
 
 import com.sixsprints.core.domain.AbstractMongoEntity;
 import com.sixsprints.core.exception.EntityAlreadyExistsException;
@@ -110,4 +113,81 @@ public interface GenericCreateService<T extends AbstractMongoEntity> {
   List<T> bulkInsert(@Nonnull List<T> entities)
       throws EntityAlreadyExistsException, EntityInvalidException;
 
+  /**
+   * Inserts many new entities in batches, reporting the outcome of every row instead of failing
+   * the whole call.
+   * 
+   * <p>The entities are processed in chunks of {@code bulkChunkSize()} rows. For each chunk:</p>
+   * <ul>
+   *   <li>every entity goes through {@code enhanceEntity}, {@code preInsert} and validation</li>
+   *   <li>duplicates of the valid entities are looked up with one {@code findDuplicates()} query
+   *       over the slug and the unique indexes of the entity (see {@code duplicateKeys()})</li>
+   *   <li>the slug sequence block for the remaining entities is reserved in one call</li>
+   *   <li>the entities are written with one unordered bulk insert, and {@code postInsert} runs for
+   *       each written entity</li>
+   * </ul>
+   * 
+   * <p><strong>Error Handling:</strong> Invalid rows, duplicates and rows rejected by the
+   * database (e.g. a unique index violation) are reported as {@code INVALID} with their errors;
+   * all other rows are written. The call is not transactional, so rows written before a failure
+   * stay written. Duplicates within the input itself are only caught by unique indexes.</p>
+   * 
+   * <p><strong>Example:</strong></p>
+   * <pre>{@code
+   * BulkResult<User> result = userService.bulkInsertBatched(users);
+   * result.failures().forEach(row -> log.warn("Row {}: {}", row.getIndex(), row.getErrors()));
+   * }</pre>
+   * 
+   * @param entities the entities to insert (must not be null or contain null elements)
+   * @return the written entities and a {@code CREATE} or {@code INVALID} result per input row
+   * 
+   * @see #bulkInsert(List) for an all-or-nothing insert
+   */
+  BulkResult<T> bulkInsertBatched(@Nonnull List<T> entities);
+
+  /**
+   * Queues an entity for a write-behind insert and returns without waiting for the database.
+   * 
+   * <p>Meant for append-only, high-volume entities such as events or audit records. The entity is
+   * enhanced, run through {@code preInsert} and validated on the calling thread; an invalid entity
+   * fails the returned future right away. Valid entities go into a bounded queue that one
+   * background writer drains into unordered bulk inserts of up to
+   * {@code create.write.behind.batch.size} entities, waiting up to
+   * {@code create.write.behind.linger.ms} for a batch to fill.</p>
+   * 
+   * <p><strong>Behavior:</strong></p>
+   * <ul>
+   *   <li>The future completes with the inserted entity (id and slug set), or fails with an
+   *       {@link EntityInvalidException} for a duplicate or a row rejected by the database</li>
+   *   <li>When the queue is full, {@code create.write.behind.backpressure} decides: {@code BLOCK}
+   *       waits, {@code DROP} fails the future and {@code CALLER_RUNS} inserts on the calling
+   *       thread</li>
+   *   <li>The creating user is captured on the calling thread; {@code postInsert} runs on the
+   *       writer thread, without the caller's request context</li>
+   *   <li>Queued entities are written when the service is destroyed, within
+   *       {@code create.write.behind.shutdown.timeout.ms}; entities queued when the process dies
+   *       are lost</li>
+   * </ul>
+   * 
+   * <p><strong>Example:</strong></p>
+   * <pre>{@code
+   * eventService.insertOneAsync(event)
+   *     .exceptionally(ex -> { log.warn("Event not stored", ex); return null; });
+   * }</pre>
+   * 
+   * @param entity the entity to insert (must not be null)
+   * @return a future of the inserted entity
+   * 
+   * @see #writeBehindStats() for queue depth and batch size metrics
+   */
+  CompletableFuture<T> insertOneAsync(@Nonnull T entity);
+
+  /**
+   * Returns the counters of this service's write-behind buffer.
+   * 
+   * @return queue depth, capacity, submitted, written, failed, dropped and caller-run entities and
+   *         batch sizes; all zero before the first {@link #insertOneAsync(AbstractMongoEntity)}
+   */
+  WriteBehindStats writeBehindStats();
+
 }
@@ -0,0 +1,260 @@
+package com.sixsprints.core.generic.create;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.sixsprints.core.dto.WriteBehindStats;
+import com.sixsprints.core.enums.BackpressurePolicy;
+import com.sixsprints.core.utils.ContextPropagatingExecutor;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded queue of entities written in batches by a single background thread. Any number of
+ * threads submit; the writer takes the first waiting entity, keeps collecting for up to
+ * {@code lingerMillis} or until {@code batchSize} entities are collected, and writes them with one
+ * call. Each submission gets a future completed with the written entity or the row's failure.
+ * Submissions that are still queued when the buffer is closed fail with
+ * {@link RejectedExecutionException}.
+ *
+ * @param <T> entity type
+ */
+@Slf4j
+public class WriteBehindBuffer<T> {
+
+  private static final long IDLE_POLL_MILLIS = 100L;
+
+  private final BlockingQueue<Pending<T>> queue;
+
+  private final int capacity;
+
+  private final int batchSize;
+
+  private final long lingerNanos;
+
+  private final BackpressurePolicy policy;
+
+  private final Function<List<T>, List<Throwable>> writer;
+
+  private final Consumer<T> afterWrite;
+
+  private final Thread thread;
+
+  private volatile boolean closed;
+
+  private final LongAdder submitted = new LongAdder();
+
+  private final LongAdder written = new LongAdder();
+
+  private final LongAdder failed = new LongAdder();
+
+  private final LongAdder dropped = new LongAdder();
+
+  private final LongAdder callerRuns = new LongAdder();
+
+  private final LongAdder batches = new LongAdder();
+
+  private final LongAdder batched = new LongAdder();
+
+  private final AtomicInteger maxBatchSize = new AtomicInteger();
+
+  /**
+   * @param writer writes a batch and returns the failure of each entity, aligned with the batch
+   *        and null for written ones; an exception fails the whole batch
+   */
+  public WriteBehindBuffer(String name, int capacity, int batchSize, long lingerMillis,
+      BackpressurePolicy policy, Function<List<T>, List<Throwable>> writer) {
+    this(name, capacity, batchSize, lingerMillis, policy, writer, null);
+  }
+
+  /**
+   * @param afterWrite runs for each written entity before its future completes, under the context
+   *        ({@link ContextPropagatingExecutor#capture()}) of the thread that submitted it; an
+   *        exception fails that entity's future
+   */
+  public WriteBehindBuffer(String name, int capacity, int batchSize, long lingerMillis,
+      BackpressurePolicy policy, Function<List<T>, List<Throwable>> writer,
+      Consumer<T> afterWrite) {
+    this.capacity = Math.max(1, capacity);
+    this.queue = new ArrayBlockingQueue<>(this.capacity);
+    this.batchSize = Math.max(1, batchSize);
+    this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, lingerMillis));
+    this.policy = policy == null ? BackpressurePolicy.BLOCK : policy;
+    this.writer = writer;
+    this.afterWrite = afterWrite;
+    this.thread = new Thread(this::run, "mongo-core-write-behind-" + name);
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  public CompletableFuture<T> submit(T entity) {
+    Pending<T> pending = new Pending<>(entity, new CompletableFuture<>(),
+        afterWrite == null ? null : ContextPropagatingExecutor.capture());
+    if (closed) {
+      reject(pending, "Buffer is closed");
+      return pending.future;
+    }
+    submitted.increment();
+    if (queue.offer(pending)) {
+      return recheckClosed(pending);
+    }
+    switch (policy) {
+      case DROP:
+        dropped.increment();
+        failed.increment();
+        pending.future.completeExceptionally(new RejectedExecutionException("Buffer is full"));
+        break;
+      case CALLER_RUNS:
+        callerRuns.increment();
+        write(List.of(pending));
+        break;
+      default:
+        try {
+          while (!queue.offer(pending, IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (closed) {
+              failed.increment();
+              reject(pending, "Buffer is closed");
+              return pending.future;
+            }
+          }
+          return recheckClosed(pending);
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          failed.increment();
+          pending.future.completeExceptionally(ex);
+        }
+    }
+    return pending.future;
+  }
+
+  /**
+   * Stops accepting entities and waits up to {@code timeoutMillis} for the queued ones to be
+   * written. Whatever is still queued after that fails with {@link RejectedExecutionException}.
+   */
+  public void close(long timeoutMillis) {
+    closed = true;
+    try {
+      thread.join(timeoutMillis);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    List<Pending<T>> left = new ArrayList<>();
+    queue.drainTo(left);
+    if (!left.isEmpty()) {
+      log.warn("Write-behind buffer {} closed with {} entities still queued", thread.getName(),
+          left.size());
+      failed.add(left.size());
+      left.forEach(pending -> reject(pending, "Buffer closed before the entity was written"));
+    }
+  }
+
+  public WriteBehindStats stats() {
+    long batches = this.batches.sum();
+    return WriteBehindStats.builder().queueDepth(queue.size()).capacity(capacity)
+        .submitted(submitted.sum()).written(written.sum()).failed(failed.sum())
+        .dropped(dropped.sum()).callerRuns(callerRuns.sum()).batches(batches)
+        .averageBatchSize(batches == 0 ? 0 : (double) batched.sum() / batches)
+        .maxBatchSize(maxBatchSize.get()).build();
+  }
+
+  private void run() {
+    List<Pending<T>> batch = new ArrayList<>(batchSize);
+    while (!closed || !queue.isEmpty()) {
+      try {
+        Pending<T> first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < batchSize) {
+          long remaining = closed ? 0 : deadline - System.nanoTime();
+          Pending<T> next =
+              remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+      } catch (InterruptedException ex) {
+        closed = true;
+      }
+      if (!batch.isEmpty()) {
+        batches.increment();
+        batched.add(batch.size());
+        maxBatchSize.accumulateAndGet(batch.size(), Math::max);
+        write(batch);
+        batch.clear();
+      }
+    }
+  }
+
+  private void write(List<Pending<T>> batch) {
+    List<T> entities = new ArrayList<>(batch.size());
+    batch.forEach(pending -> entities.add(pending.entity));
+    List<Throwable> failures;
+    try {
+      failures = writer.apply(entities);
+    } catch (RuntimeException ex) {
+      log.error("Write-behind batch of {} entities failed: {}", batch.size(), ex.getMessage());
+      failed.add(batch.size());
+      batch.forEach(pending -> pending.future.completeExceptionally(ex));
+      return;
+    }
+    for (int i = 0; i < batch.size(); i++) {
+      Throwable failure = failures.get(i);
+      if (failure == null) {
+        failure = afterWrite(batch.get(i));
+      }
+      if (failure == null) {
+        written.increment();
+        batch.get(i).future.complete(entities.get(i));
+      } else {
+        failed.increment();
+        batch.get(i).future.completeExceptionally(failure);
+      }
+    }
+  }
+
+  private Throwable afterWrite(Pending<T> pending) {
+    if (afterWrite == null) {
+      return null;
+    }
+    try {
+      pending.context.execute(() -> afterWrite.accept(pending.entity));
+      return null;
+    } catch (RuntimeException ex) {
+      return ex;
+    }
+  }
+
+  /**
+   * The writer may have stopped between the {@code closed} check and the enqueue. If the entry is
+   * still queued once the buffer is closed, nothing is left to take it, so it is failed here.
+   */
+  private CompletableFuture<T> recheckClosed(Pending<T> pending) {
+    if (closed && queue.remove(pending)) {
+      failed.increment();
+      reject(pending, "Buffer is closed");
+    }
+    return pending.future;
+  }
+
+  private void reject(Pending<T> pending, String message) {
+    pending.future.completeExceptionally(new RejectedExecutionException(message));
+  }
+
+  private record Pending<T>(T entity, CompletableFuture<T> future, Executor context) {
+  }
+
+}
@@ -1,38 +1,77 @@
 package com.sixsprints.core.generic.delete;
 
+import java.lang.reflect.Method;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeDeleteEvent;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ReflectionUtils;
 import com.sixsprints.core.domain.AbstractMongoEntity;
+import com.sixsprints.core.dto.DeleteProgress;
+import com.sixsprints.core.exception.BaseRuntimeException;
 import com.sixsprints.core.generic.read.AbstractReadService;
 
 public abstract class AbstractDeleteService<T extends AbstractMongoEntity>
     extends AbstractReadService<T> implements GenericDeleteService<T> {
 
+  @Value("${delete.chunked.enabled:false}")
+  private boolean chunkedDelete;
+
+  @Value("${delete.chunked.threshold:10000}")
+  private int chunkedDeleteThreshold;
+
+  @Value("${delete.batch.size:1000}")
+  private int deleteBatchSize;
+
+  @Value("${delete.batch.pause.ms:0}")
+  private long deleteBatchPauseMillis;
+
+  @Autowired(required = false)
+  private List<AbstractMongoEventListener<?>> mongoEventListeners;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  private volatile Boolean deleteListened;
+
   @Override
   public long deleteOneById(String id) {
     assertValid(id != null, "id", id);
-    return deleteOneByCriteria(Criteria.where(AbstractMongoEntity.Fields.id).is(id));
+    return deleteOne(Criteria.where(AbstractMongoEntity.Fields.id).is(id));
   }
 
   @Override
   public long deleteOneBySlug(String slug) {
     assertValid(slug != null, "slug", slug);
-    return deleteOneByCriteria(Criteria.where(AbstractMongoEntity.Fields.slug).is(slug));
+    return deleteOne(Criteria.where(AbstractMongoEntity.Fields.slug).is(slug));
   }
 
   @Override
   public long deleteOneByCriteria(Criteria criteria) {
     assertValid(criteria != null, "criteria", criteria);
-    Query query = new Query(criteria);
-    T entity = mongo.findAndRemove(query, metaData().getClassType());
-    return Optional.ofNullable(entity).map(e -> 1).orElse(0);
+    return deleteOne(criteria);
   }
 
   @Override
   public long bulkDeleteById(List<String> ids) {
     assertValid(ids != null, "ids", ids);
+    if (chunked(ids.size())) {
+      return deleteInBatches(AbstractMongoEntity.Fields.id, ids);
+    }
     Criteria criteria = Criteria.where(AbstractMongoEntity.Fields.id).in(ids);
     return bulkDeleteByCriteria(criteria);
   }
@@ -40,6 +79,9 @@ public abstract class AbstractDeleteService<T extends AbstractMongoEntity>
   @Override
   public long bulkDeleteBySlug(List<String> slugs) {
     assertValid(slugs != null, "slugs", slugs);
+    if (chunked(slugs.size())) {
+      return deleteInBatches(AbstractMongoEntity.Fields.slug, slugs);
+    }
     Criteria criteria = Criteria.where(AbstractMongoEntity.Fields.slug).in(slugs);
     return bulkDeleteByCriteria(criteria);
   }
@@ -47,8 +89,258 @@ public abstract class AbstractDeleteService<T extends AbstractMongoEntity>
   @Override
   public long bulkDeleteByCriteria(Criteria criteria) {
     assertValid(criteria != null, "criteria", criteria);
+    if (chunkedDelete() && !TransactionSynchronizationManager.isActualTransactionActive()) {
+      return bulkDeleteByCriteriaChunked(criteria, null, null).getDeleted();
+    }
+    long deleted = delete(liveCriteria(criteria), !softDelete());
+    evictAllFromCache();
+    return deleted;
+  }
+
+  @Override
+  public DeleteProgress bulkDeleteByCriteriaChunked(Criteria criteria, String resumeAfterId,
+      Consumer<DeleteProgress> progress) {
+    assertValid(criteria != null, "criteria", criteria);
+    return deleteChunked(liveCriteria(criteria), !softDelete(), resumeAfterId, progress);
+  }
+
+  @Override
+  public DeleteProgress purgeDeleted(long deletedBefore, Consumer<DeleteProgress> progress) {
+    Criteria tombstones = Criteria.where(AbstractMongoEntity.Fields.deleted).is(true)
+        .and(AbstractMongoEntity.Fields.dateDeleted).lt(deletedBefore);
+    return deleteChunked(tombstones, true, null, progress);
+  }
+
+  /**
+   * Whether {@link #bulkDeleteByCriteria(Criteria)} deletes in batches. Defaults to the
+   * {@code delete.chunked.enabled} property.
+   */
+  protected boolean chunkedDelete() {
+    return chunkedDelete;
+  }
+
+  /**
+   * Size above which {@link #bulkDeleteById(List)} and {@link #bulkDeleteBySlug(List)} delete in
+   * batches. Defaults to the {@code delete.chunked.threshold} property.
+   */
+  protected int chunkedDeleteThreshold() {
+    return chunkedDeleteThreshold;
+  }
+
+  /**
+   * Documents removed per batch of a chunked delete. Defaults to the {@code delete.batch.size}
+   * property.
+   */
+  protected int deleteBatchSize() {
+    return deleteBatchSize;
+  }
+
+  /**
+   * Pause between the batches of a chunked delete. Defaults to the {@code delete.batch.pause.ms}
+   * property.
+   */
+  protected long deleteBatchPauseMillis() {
+    return deleteBatchPauseMillis;
+  }
+
+  /**
+   * Fields of the deleted document loaded for {@link #preDelete} and {@link #postDelete}, on top of
+   * id and slug. Defaults to {@code null}, loading the whole document.
+   */
+  protected Collection<String> deleteHookFields() {
+    return null;
+  }
+
+  /**
+   * Whether the single deletes run {@code preDelete} and {@code postDelete}. Services implementing
+   * either hook return true, so that the document is loaded for them. Defaults to false.
+   */
+  protected boolean deleteHooks() {
+    return false;
+  }
+
+  /**
+   * Whether the single deletes must load the document first: when {@link #deleteHooks()} is on,
+   * when the cache needs its id and slug, or when a registered {@link AbstractMongoEventListener}
+   * of the entity handles delete events, which then see the removal by {@code _id}. Otherwise they
+   * run as a plain remove (or {@code $set} of the tombstone) without reading anything.
+   */
+  protected boolean deleteNeedsDocument() {
+    return deleteHooks() || cacheEnabled() || deleteListened();
+  }
+
+  private long deleteOne(Criteria criteria) {
+    Criteria live = liveCriteria(criteria);
+    if (!deleteNeedsDocument()) {
+      return remove(live);
+    }
+    Query query = new Query(live);
+    Collection<String> fields = deleteHookFields();
+    if (fields != null) {
+      query.fields().include(AbstractMongoEntity.Fields.id, AbstractMongoEntity.Fields.slug)
+          .include(fields.toArray(new String[0]));
+    }
+    T entity = mongo.findOne(query, metaData().getClassType());
+    if (entity == null) {
+      return 0;
+    }
+    preDelete(entity);
+    long deleted = remove(new Criteria().andOperator(live,
+        Criteria.where(AbstractMongoEntity.Fields.id).is(entity.getId())));
+    evictFromCache(entity);
+    if (deleted > 0) {
+      postDelete(entity);
+    }
+    return deleted;
+  }
+
+  /**
+   * Removes the first matching document with a single {@code deleteOne}, or flags it as deleted
+   * with a single {@code $set}. {@code MongoTemplate.remove} would look up the ids of a limited
+   * query first, so the delete events it publishes are published here instead, when a listener
+   * handles them.
+   */
+  private long remove(Criteria criteria) {
+    Class<T> type = metaData().getClassType();
+    if (softDelete()) {
+      return mongo.updateFirst(new Query(criteria), tombstone(), type).getModifiedCount();
+    }
+    String collection = mongo.getCollectionName(type);
+    Document filter = new QueryMapper(mongo.getConverter()).getMappedObject(
+        criteria.getCriteriaObject(),
+        mongo.getConverter().getMappingContext().getPersistentEntity(type));
+    boolean listened = deleteListened();
+    if (listened) {
+      eventPublisher.publishEvent(new BeforeDeleteEvent<>(filter, type, collection));
+    }
+    long deleted = mongo.execute(type, documents -> documents.deleteOne(filter).getDeletedCount());
+    if (listened) {
+      eventPublisher.publishEvent(new AfterDeleteEvent<>(filter, type, collection));
+    }
+    return deleted;
+  }
+
+  private boolean deleteListened() {
+    Boolean listened = deleteListened;
+    if (listened == null) {
+      Class<T> type = metaData().getClassType();
+      listened = mongoEventListeners != null && mongoEventListeners.stream()
+          .anyMatch(listener -> handlesDeletes(listener, type));
+      deleteListened = listened;
+    }
+    return listened;
+  }
+
+  private static boolean handlesDeletes(AbstractMongoEventListener<?> listener, Class<?> type) {
+    Class<?> domain =
+        GenericTypeResolver.resolveTypeArgument(listener.getClass(), AbstractMongoEventListener.class);
+    if (domain != null && !domain.isAssignableFrom(type)) {
+      return false;
+    }
+    return overrides(listener, "onBeforeDelete", BeforeDeleteEvent.class)
+        || overrides(listener, "onAfterDelete", AfterDeleteEvent.class);
+  }
+
+  private static boolean overrides(Object listener, String method, Class<?> event) {
+    Method found = ReflectionUtils.findMethod(listener.getClass(), method, event);
+    return found != null && found.getDeclaringClass() != AbstractMongoEventListener.class;
+  }
+
+  private boolean chunked(int size) {
+    return size > chunkedDeleteThreshold()
+        && !TransactionSynchronizationManager.isActualTransactionActive();
+  }
+
+  private DeleteProgress deleteChunked(Criteria criteria, boolean remove, String resumeAfterId,
+      Consumer<DeleteProgress> progress) {
+    int batchSize = Math.max(1, deleteBatchSize());
+    DeleteProgress state = DeleteProgress.builder().lastId(resumeAfterId).build();
+    while (true) {
+      Criteria batchCriteria = criteria;
+      if (state.getLastId() != null) {
+        batchCriteria = new Criteria().andOperator(criteria,
+            Criteria.where(AbstractMongoEntity.Fields.id).gt(state.getLastId()));
+      }
+      Query query = new Query(batchCriteria).with(Sort.by(AbstractMongoEntity.Fields.id))
+          .limit(batchSize);
+      query.fields().include(AbstractMongoEntity.Fields.id);
+      List<String> ids = mongo.find(query, metaData().getClassType()).stream()
+          .map(AbstractMongoEntity::getId).collect(Collectors.toList());
+      if (ids.isEmpty()) {
+        break;
+      }
+      if (state.getBatches() > 0) {
+        pauseBetweenBatches();
+      }
+      deleteBatch(AbstractMongoEntity.Fields.id, ids, remove, state);
+      state.setLastId(ids.get(ids.size() - 1));
+      report(progress, state);
+      if (ids.size() < batchSize) {
+        break;
+      }
+    }
+    state.setComplete(true);
+    report(progress, state);
+    return state;
+  }
+
+  private long deleteInBatches(String field, List<String> keys) {
+    int batchSize = Math.max(1, deleteBatchSize());
+    DeleteProgress state = DeleteProgress.builder().build();
+    for (int from = 0; from < keys.size(); from += batchSize) {
+      if (from > 0) {
+        pauseBetweenBatches();
+      }
+      deleteBatch(field, keys.subList(from, Math.min(keys.size(), from + batchSize)),
+          !softDelete(), state);
+    }
+    return state.getDeleted();
+  }
+
+  private void deleteBatch(String field, List<String> keys, boolean remove,
+      DeleteProgress state) {
+    Criteria criteria = Criteria.where(field).in(keys);
+    long deleted = delete(remove ? criteria : liveCriteria(criteria), remove);
+    state.setDeleted(state.getDeleted() + deleted);
+    state.setBatches(state.getBatches() + 1);
+    evictAllFromCache();
+  }
+
+  /**
+   * Removes the matching documents, or flags them as deleted with a single {@code $set}.
+   */
+  private long delete(Criteria criteria, boolean remove) {
     Query query = new Query(criteria);
-    return mongo.remove(query, metaData().getClassType()).getDeletedCount();
+    if (remove) {
+      return mongo.remove(query, metaData().getClassType()).getDeletedCount();
+    }
+    return mongo.updateMulti(query, tombstone(), metaData().getClassType()).getModifiedCount();
+  }
+
+  private static Update tombstone() {
+    return new Update().set(AbstractMongoEntity.Fields.deleted, true)
+        .set(AbstractMongoEntity.Fields.dateDeleted, System.currentTimeMillis());
+  }
+
+  private void pauseBetweenBatches() {
+    long pause = deleteBatchPauseMillis();
+    if (pause <= 0) {
+      return;
+    }
+    try {
+      Thread.sleep(pause);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw BaseRuntimeException.builder().error(ex.getMessage()).build();
+    }
+  }
+
+  private static void report(Consumer<DeleteProgress> progress, DeleteProgress state) {
+    if (progress != null) {
+      progress.accept(DeleteProgress.builder().deleted(state.getDeleted())
+          .batches(state.getBatches()).lastId(state.getLastId()).complete(state.isComplete())
+          .build());
+    }
   }
 
 }
@@ -1,10 +1,12 @@
 package com.sixsprints.core.generic.delete;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.springframework.data.mongodb.core.query.Criteria;
 
 import com.sixsprints.core.domain.AbstractMongoEntity;
+import com.sixsprints.core.dto.DeleteProgress;
 import jakarta.annotation.Nonnull;
 
 /**
@@ -14,6 +16,11 @@ import jakarta.annotation.Nonnull;
  * including hard delete operations that permanently remove entities from the database.
  * All methods ensure proper cleanup and maintain referential integrity.</p>
  * 
+ * <p>For entities annotated with {@code @SoftDeletable} every delete instead sets
+ * {@code deleted} and {@code dateDeleted} with a single {@code $set}. The read services then
+ * leave these tombstones out, and {@link #purgeDeleted(long, Consumer)} removes old ones for
+ * good.</p>
+ * 
  * <p><strong>Key Features:</strong></p>
  * <ul>
  *   <li>Hard delete operations that permanently remove entities</li>
@@ -120,7 +127,10 @@ public interface GenericDeleteService<T extends AbstractMongoEntity> {
    * </ul>
    * 
    * <p><strong>Performance:</strong> This method uses an efficient bulk operation
-   * that deletes multiple entities in a single database operation.</p>
+   * that deletes multiple entities in a single database operation. Lists longer than
+   * {@code delete.chunked.threshold} are deleted in batches like
+   * {@link #bulkDeleteByCriteriaChunked(Criteria, String, Consumer)}, and the operation is then
+   * no longer atomic.</p>
    * 
    * @param ids the list of unique identifiers of entities to delete (must not be null)
    * @return the number of entities deleted (0 to the size of the input list)
@@ -148,6 +158,10 @@ public interface GenericDeleteService<T extends AbstractMongoEntity> {
    * <p><strong>Warning:</strong> Use this method with extreme caution as it can delete
    * a large number of entities. Always test your criteria thoroughly before execution.</p>
    * 
+   * <p>With {@code delete.chunked.enabled} set, the delete runs through
+   * {@link #bulkDeleteByCriteriaChunked(Criteria, String, Consumer)} instead of one
+   * {@code remove}.</p>
+   * 
    * @param criteria the MongoDB criteria to match against (must not be null)
    * @return the number of entities deleted (0 or more)
    * 
@@ -155,6 +169,48 @@ public interface GenericDeleteService<T extends AbstractMongoEntity> {
    */
   long bulkDeleteByCriteria(@Nonnull Criteria criteria);
 
+  /**
+   * Permanently deletes all entities matching the criteria in bounded batches, so that a large
+   * delete does not flood the oplog or hold up other writers.
+   * 
+   * <p><strong>Behavior:</strong></p>
+   * <ul>
+   *   <li>The {@code _id}s of the next batch are read in ascending order with a query that
+   *   projects only {@code _id}, which an index on the criteria fields can cover</li>
+   *   <li>Each batch of {@code delete.batch.size} ids is removed with its own {@code remove}</li>
+   *   <li>The service pauses {@code delete.batch.pause.ms} between batches, giving secondaries
+   *   time to catch up</li>
+   *   <li>{@code progress} is called after every batch and once more when the delete completes</li>
+   * </ul>
+   * 
+   * <p>The delete is not atomic. If it is interrupted, call it again with the {@code lastId} of
+   * the last reported progress; documents with a lower {@code _id} are then skipped.</p>
+   * 
+   * @param criteria      the MongoDB criteria to match against (must not be null)
+   * @param resumeAfterId only delete documents with a higher {@code _id}; may be null
+   * @param progress      receives the progress after every batch; may be null
+   * @return the final progress, with the total number of entities deleted
+   * 
+   * @see #bulkDeleteByCriteria(Criteria) for deleting with a single operation
+   */
+  DeleteProgress bulkDeleteByCriteriaChunked(@Nonnull Criteria criteria, String resumeAfterId,
+      Consumer<DeleteProgress> progress);
+
+  /**
+   * Physically removes the documents of a {@code @SoftDeletable} entity that were deleted before
+   * the given time, in the same bounded, paused batches as
+   * {@link #bulkDeleteByCriteriaChunked(Criteria, String, Consumer)}. The tombstones are found
+   * through the partial {@code dateDeleted} index created for soft deletable entities.
+   * 
+   * <p>Meant to be run periodically by the application, for instance from a scheduled job with
+   * a retention period: {@code purgeDeleted(now - retention, null)}.</p>
+   * 
+   * @param deletedBefore epoch milliseconds; tombstones deleted earlier are removed
+   * @param progress      receives the progress after every batch; may be null
+   * @return the final progress, with the number of tombstones removed
+   */
+  DeleteProgress purgeDeleted(long deletedBefore, Consumer<DeleteProgress> progress);
+
   /**
    * Permanently deletes multiple entities by their slug fields.
    * 
@@ -169,7 +225,10 @@ public interface GenericDeleteService<T extends AbstractMongoEntity> {
    * </ul>
    * 
    * <p><strong>Performance:</strong> This method uses an efficient bulk operation
-   * that deletes multiple entities in a single database operation.</p>
+   * that deletes multiple entities in a single database operation. Lists longer than
+   * {@code delete.chunked.threshold} are deleted in batches like
+   * {@link #bulkDeleteByCriteriaChunked(Criteria, String, Consumer)}, and the operation is then
+   * no longer atomic.</p>
    * 
    * @param slugs the list of slug values of entities to delete (must not be null)
    * @return the number of entities deleted (0 to the size of the input list)
@@ -1,33 +1,64 @@
 package com.sixsprints.core.generic.read;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.apache.commons.lang3.ObjectUtils;
+import org.bson.Document;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.NullValueInNestedPathException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.Pair;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 import com.sixsprints.core.domain.AbstractMongoEntity;
+import com.sixsprints.core.dto.CacheStats;
+import com.sixsprints.core.dto.IndexAdvice;
+import com.sixsprints.core.dto.QueryShapeStats;
 import com.sixsprints.core.dto.FilterRequestDto;
+import com.sixsprints.core.dto.FilterResultPage;
 import com.sixsprints.core.dto.MetaData;
 import com.sixsprints.core.dto.filter.BooleanColumnFilter;
 import com.sixsprints.core.dto.filter.ColumnFilter;
 import com.sixsprints.core.dto.filter.DateColumnFilter;
 import com.sixsprints.core.dto.filter.ExactMatchColumnFilter;
 import com.sixsprints.core.dto.filter.NumberColumnFilter;
+import com.sixsprints.core.dto.filter.SearchColumnFilter;
 import com.sixsprints.core.dto.filter.SetColumnFilter;
 import com.sixsprints.core.dto.filter.SortModel;
+import com.sixsprints.core.enums.CountStrategy;
+import com.sixsprints.core.enums.PaginationMode;
+import com.sixsprints.core.enums.SearchStrategy;
 import com.sixsprints.core.generic.GenericAbstractService;
 import com.sixsprints.core.utils.AppConstants;
+import com.sixsprints.core.utils.BeanWrapperUtil;
+import com.sixsprints.core.utils.ConcurrencyUtil;
+import com.sixsprints.core.utils.ContextPropagatingExecutor;
+import com.sixsprints.core.utils.CursorUtil;
 import com.sixsprints.core.utils.DateUtil;
 import lombok.extern.slf4j.Slf4j;
 
@@ -35,17 +66,74 @@ import lombok.extern.slf4j.Slf4j;
 public abstract class AbstractReadService<T extends AbstractMongoEntity>
     extends GenericAbstractService<T> implements GenericReadService<T> {
 
+  private static final String _ID = "_id";
+
+  private static final String TEXT = "$text";
+
+  private static final String TEXT_SCORE = "score";
+
+  @Value("${read.count.strategy:EXACT}")
+  private CountStrategy countStrategy;
+
+  @Value("${read.keyset.count.strategy:NONE}")
+  private CountStrategy keysetCountStrategy;
+
+  @Value("${read.count.cap:10000}")
+  private int countCap;
+
+  @Value("${read.parallel.count:false}")
+  private boolean parallelCount;
+
+  @Value("${read.stream.batch.size:500}")
+  private int streamBatchSize;
+
+  @Value("${read.search.strategy:PREFIX}")
+  private SearchStrategy searchStrategy;
+
+  @Value("${read.cache.size:1000}")
+  private int cacheSize;
+
+  @Value("${read.cache.ttl.ms:60000}")
+  private long cacheTtlMillis;
+
+  private volatile EntityCache entityCache;
+
+  @Value("${read.multi.chunk.size:500}")
+  private int multiGetChunkSize;
+
+  @Value("${read.batch.window.ms:2}")
+  private long batchWindowMillis;
+
+  @Value("${read.batch.max.size:100}")
+  private int batchMaxSize;
+
+  private volatile BatchLoader<String, Document> idLoader;
+
+  private volatile BatchLoader<String, Document> slugLoader;
+
   @Autowired
   private DateUtil dateUtil;
 
+  @Autowired
+  private QueryAnalyzer queryAnalyzer;
+
+  @Autowired
+  private IndexAdvisor indexAdvisor;
+
   @Override
   public List<T> findAllList() {
+    if (softDelete()) {
+      return mongo.find(new Query(liveCriteria(new Criteria())), metaData().getClassType());
+    }
     return repository().findAll();
   }
 
   @Override
   public Page<T> findAll(Pageable page) {
     assertValid(page != null, "page", page);
+    if (softDelete()) {
+      return filterByCriteria(new Criteria(), page);
+    }
     return repository().findAll(page);
   }
 
@@ -54,7 +142,26 @@ public abstract class AbstractReadService<T extends AbstractMongoEntity>
     if (!StringUtils.hasText(id)) {
       return Optional.empty();
     }
-    return repository().findById(id);
+    EntityCache cache = readCache();
+    BatchLoader<String, Document> loader = batchLoader(true);
+    if (cache == null && loader == null) {
+      return findLive(AbstractMongoEntity.Fields.id, id);
+    }
+    Document cached = cache == null ? null : cache.getById(id);
+    if (cached != null) {
+      return Optional.of(fromDocument(cached));
+    }
+    long generation = cache == null ? 0 : cache.generation();
+    if (loader != null) {
+      Document document = await(loader.load(id));
+      if (document != null && cache != null) {
+        cache.put(id, document.getString(AbstractMongoEntity.Fields.slug), document, generation);
+      }
+      return Optional.ofNullable(document).map(this::fromDocument);
+    }
+    Optional<T> entity = findLive(AbstractMongoEntity.Fields.id, id);
+    entity.ifPresent(e -> cache.put(e.getId(), e.getSlug(), toDocument(e), generation));
+    return entity;
   }
 
   @Override
@@ -62,20 +169,81 @@ public abstract class AbstractReadService<T extends AbstractMongoEntity>
     if (!StringUtils.hasText(slug)) {
       return Optional.empty();
     }
-    T entity = repository().findBySlug(slug);
-    return Optional.ofNullable(entity);
+    EntityCache cache = readCache();
+    BatchLoader<String, Document> loader = batchLoader(false);
+    if (cache == null && loader == null) {
+      return findLive(AbstractMongoEntity.Fields.slug, slug);
+    }
+    Document cached = cache == null ? null : cache.getBySlug(slug);
+    if (cached != null) {
+      return Optional.of(fromDocument(cached));
+    }
+    long generation = cache == null ? 0 : cache.generation();
+    if (loader != null) {
+      Document document = await(loader.load(slug));
+      if (document != null && cache != null) {
+        cache.put(String.valueOf(document.get(_ID)), slug, document, generation);
+      }
+      return Optional.ofNullable(document).map(this::fromDocument);
+    }
+    Optional<T> entity = findLive(AbstractMongoEntity.Fields.slug, slug);
+    entity.ifPresent(e -> cache.put(e.getId(), e.getSlug(), toDocument(e), generation));
+    return entity;
+  }
+
+  @Override
+  public Map<String, T> findAllByIds(Collection<String> ids) {
+    assertValid(ids != null, "ids", ids);
+    return findAllByKeys(AbstractMongoEntity.Fields.id, ids, AbstractMongoEntity::getId);
+  }
+
+  @Override
+  public Map<String, T> findAllBySlugs(Collection<String> slugs) {
+    assertValid(slugs != null, "slugs", slugs);
+    return findAllByKeys(AbstractMongoEntity.Fields.slug, slugs, AbstractMongoEntity::getSlug);
+  }
+
+  @Override
+  public CacheStats cacheStats() {
+    EntityCache cache = entityCache;
+    return cache == null ? CacheStats.builder().build() : cache.stats();
+  }
+
+  @Override
+  public List<QueryShapeStats> queryShapeStats() {
+    return queryAnalyzer.snapshot(mongo.getCollectionName(metaData().getClassType()));
+  }
+
+  @Override
+  public List<IndexAdvice> indexAdvice() {
+    return indexAdvisor.advise(mongo, metaData().getClassType());
+  }
+
+  @Override
+  public Optional<T> findOneBySlug(String slug, Collection<String> includeFields) {
+    if (CollectionUtils.isEmpty(includeFields)) {
+      return findOneBySlug(slug);
+    }
+    if (!StringUtils.hasText(slug)) {
+      return Optional.empty();
+    }
+    Query query = new Projection(new ArrayList<>(includeFields), List.of(), false)
+        .applyTo(new Query(liveCriteria(setKeyCriteria(AbstractMongoEntity.Fields.slug).is(slug))));
+    return Optional.ofNullable(mongo.findOne(query, metaData().getClassType()));
   }
 
   @Override
   public Optional<T> findOneByCriteria(Criteria criteria) {
     assertValid(criteria != null, "criteria", criteria);
-    return Optional.ofNullable(mongo.findOne(new Query(criteria), metaData().getClassType()));
+    return Optional.ofNullable(
+        mongo.findOne(new Query(liveCriteria(criteria)), metaData().getClassType()));
   }
 
   @Override
   public Page<T> filterByCriteria(Criteria criteria) {
     assertValid(criteria != null, "criteria", criteria);
-    return runCriteriaWithPage(metaData(), Pageable.unpaged(), criteria);
+    return runCriteriaWithPage(metaData(), Pageable.unpaged(), liveCriteria(criteria),
+        countStrategy(), Projection.NONE);
   }
 
   @Override
@@ -90,7 +258,8 @@ public abstract class AbstractReadService<T extends AbstractMongoEntity>
   public Page<T> filterByCriteria(Criteria criteria, Pageable pageable) {
     assertValid(criteria != null, "criteria", criteria);
     assertValid(pageable != null, "pageable", pageable);
-    return runCriteriaWithPage(metaData(), pageable, criteria);
+    return runCriteriaWithPage(metaData(), pageable, liveCriteria(criteria), countStrategy(),
+        Projection.NONE);
   }
 
   @Override
@@ -103,18 +272,569 @@ public abstract class AbstractReadService<T extends AbstractMongoEntity>
         filterRequestDto.getSize());
     MetaData<T> meta = metaData();
     Sort sort = buildSort(filterRequestDto.getSortModel(), meta);
+    Criteria criteria = buildCriteria(filterRequestDto, meta);
+    CountStrategy requested = filterRequestDto.getCountStrategy();
+    Projection projection = projection(filterRequestDto);
+    if (isKeyset(filterRequestDto)) {
+      return runCriteriaWithKeyset(meta, filterRequestDto, sort, criteria,
+          requested == null ? keysetCountStrategy() : requested, projection);
+    }
+    CountStrategy strategy = requested == null ? countStrategy() : requested;
+    indexAdvisor.observe(meta.getClassType(), criteria, sort);
     Pageable pageable =
         PageRequest.of(filterRequestDto.getPage(), filterRequestDto.getSize(), sort);
+    if (sort.isUnsorted() && hasTextSearch(filterRequestDto)) {
+      return runCriteriaWithPage(meta, pageable, criteria, strategy,
+          projection.sortedByTextScore());
+    }
+    return runCriteriaWithPage(meta, pageable, criteria, strategy, projection);
+  }
+
+  @Override
+  public Stream<T> streamByCriteria(Criteria criteria, Sort sort) {
+    assertValid(criteria != null, "criteria", criteria);
+    assertValid(sort != null, "sort", sort);
+    Query query = new Query(liveCriteria(criteria)).with(sort).cursorBatchSize(streamBatchSize());
+    return mongo.stream(query, metaData().getClassType());
+  }
+
+  @Override
+  public Stream<T> streamByFilterRequestDto(FilterRequestDto filterRequestDto) {
+    assertValid(filterRequestDto != null, "filterRequestDto", filterRequestDto);
+    assertValid(filterRequestDto.getSize() >= 0, "filterRequestDto.size",
+        filterRequestDto.getSize());
+    MetaData<T> meta = metaData();
+    Sort sort = buildSort(filterRequestDto.getSortModel(), meta);
     Criteria criteria = buildCriteria(filterRequestDto, meta);
-    return runCriteriaWithPage(meta, pageable, criteria);
+    indexAdvisor.observe(meta.getClassType(), criteria, sort);
+    Query query = projection(filterRequestDto)
+        .applyTo(new Query(criteria).with(sort).cursorBatchSize(streamBatchSize()));
+    if (filterRequestDto.getSize() > 0) {
+      query.limit(filterRequestDto.getSize());
+    }
+    return mongo.stream(query, meta.getClassType());
+  }
+
+  /**
+   * Number of documents fetched per cursor round trip by the streaming reads. Defaults to the
+   * {@code read.stream.batch.size} property.
+   */
+  protected int streamBatchSize() {
+    return streamBatchSize;
+  }
+
+  /**
+   * Count strategy for paged reads that do not ask for one explicitly. Defaults to the
+   * {@code read.count.strategy} property (EXACT).
+   */
+  protected CountStrategy countStrategy() {
+    return countStrategy;
+  }
+
+  /**
+   * Count strategy for keyset reads that do not ask for one explicitly. Defaults to the
+   * {@code read.keyset.count.strategy} property (NONE): a keyset page is a bounded seek, and an
+   * exact count would scan the whole filtered set on every page.
+   */
+  protected CountStrategy keysetCountStrategy() {
+    return keysetCountStrategy;
+  }
+
+  /**
+   * How {@link SearchColumnFilter}s are queried for this entity. Defaults to the
+   * {@code read.search.strategy} property (PREFIX). {@link SearchStrategy#TEXT_INDEX} requires a
+   * text index on the collection and searches the fields of that index, so a search filter listing
+   * its own {@code fields} is rejected.
+   */
+  protected SearchStrategy searchStrategy() {
+    return searchStrategy;
+  }
+
+  /**
+   * Whether {@link #findOneById} and {@link #findOneBySlug} are served from an in-process cache.
+   * Off by default; enable it per service for entities that are read far more often than written
+   * and written only through this service, since writes made elsewhere (other instances, other
+   * services, the shell) are only seen once the entry expires.
+   */
+  protected boolean cacheEnabled() {
+    return false;
+  }
+
+  /**
+   * Maximum number of cached entities. Defaults to the {@code read.cache.size} property.
+   */
+  protected int cacheSize() {
+    return cacheSize;
+  }
+
+  /**
+   * Time to live of a cached entity. Defaults to the {@code read.cache.ttl.ms} property.
+   */
+  protected long cacheTtlMillis() {
+    return cacheTtlMillis;
+  }
+
+  /**
+   * Drops the entity from the cache, by id and by slug. Inside a transaction it is dropped again
+   * after completion, so a concurrent read cannot cache the pre-commit state.
+   */
+  protected void evictFromCache(T entity) {
+    if (entity != null) {
+      invalidateCache(cache -> cache.invalidate(entity.getId(), entity.getSlug()));
+    }
+  }
+
+  /**
+   * Drops every cached entity, for writes whose affected ids are not known.
+   */
+  protected void evictAllFromCache() {
+    invalidateCache(EntityCache::invalidateAll);
+  }
+
+  private void invalidateCache(Consumer<EntityCache> invalidation) {
+    EntityCache cache = entityCache;
+    if (cache == null) {
+      return;
+    }
+    invalidation.accept(cache);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          invalidation.accept(cache);
+        }
+      });
+    }
+  }
+
+  /**
+   * The cache to read through, or null when caching is off or a transaction is active (its reads
+   * must see its own uncommitted writes and must not leak them to other callers).
+   */
+  private EntityCache readCache() {
+    if (!cacheEnabled() || TransactionSynchronizationManager.isActualTransactionActive()) {
+      return null;
+    }
+    EntityCache cache = entityCache;
+    if (cache == null) {
+      synchronized (this) {
+        cache = entityCache;
+        if (cache == null) {
+          cache = new EntityCache(cacheSize(), cacheTtlMillis());
+          entityCache = cache;
+        }
+      }
+    }
+    return cache;
+  }
+
+  /**
+   * Maximum number of keys per {@code $in} query of {@link #findAllByIds} and
+   * {@link #findAllBySlugs}; larger key sets are split into chunks queried in parallel. Defaults to
+   * the {@code read.multi.chunk.size} property.
+   */
+  protected int multiGetChunkSize() {
+    return multiGetChunkSize;
+  }
+
+  private Map<String, T> findAllByKeys(String field, Collection<String> keys,
+      Function<T, String> keyOf) {
+    boolean byId = AbstractMongoEntity.Fields.id.equals(field);
+    List<String> distinct =
+        keys.stream().filter(StringUtils::hasText).distinct().collect(Collectors.toList());
+    Map<String, T> found = new HashMap<>();
+    List<String> missing = distinct;
+    EntityCache cache = readCache();
+    if (cache != null) {
+      missing = new ArrayList<>();
+      for (String key : distinct) {
+        Document cached = byId ? cache.getById(key) : cache.getBySlug(key);
+        if (cached != null) {
+          found.put(key, fromDocument(cached));
+        } else {
+          missing.add(key);
+        }
+      }
+    }
+    long generation = cache == null ? 0 : cache.generation();
+    for (T entity : findByKeys(field, missing)) {
+      found.put(keyOf.apply(entity), entity);
+      if (cache != null) {
+        cache.put(entity.getId(), entity.getSlug(), toDocument(entity), generation);
+      }
+    }
+    Map<String, T> result = new LinkedHashMap<>();
+    distinct.stream().filter(found::containsKey).forEach(key -> result.put(key, found.get(key)));
+    return result;
+  }
+
+  private List<T> findByKeys(String field, List<String> keys) {
+    if (keys.isEmpty()) {
+      return List.of();
+    }
+    Class<T> type = metaData().getClassType();
+    int chunkSize = Math.max(1, multiGetChunkSize());
+    if (keys.size() <= chunkSize || TransactionSynchronizationManager.isActualTransactionActive()) {
+      List<T> entities = new ArrayList<>();
+      for (int from = 0; from < keys.size(); from += chunkSize) {
+        List<String> chunk = keys.subList(from, Math.min(keys.size(), from + chunkSize));
+        entities.addAll(mongo.find(new Query(liveCriteria(setKeyCriteria(field).in(chunk))), type));
+      }
+      return entities;
+    }
+    List<Callable<List<T>>> chunks = new ArrayList<>();
+    for (int from = 0; from < keys.size(); from += chunkSize) {
+      List<String> chunk = keys.subList(from, Math.min(keys.size(), from + chunkSize));
+      chunks.add(() -> mongo.find(new Query(liveCriteria(setKeyCriteria(field).in(chunk))), type));
+    }
+    return ConcurrencyUtil
+        .invokeAll(new ContextPropagatingExecutor(readExecutor()), chunks).stream()
+        .flatMap(List::stream).collect(Collectors.toList());
+  }
+
+  /**
+   * Whether concurrent {@link #findOneById} and {@link #findOneBySlug} calls are coalesced into one
+   * {@code $in} query per {@link #batchWindowMillis()}. Off by default; it trades a little latency
+   * per lookup for far fewer round trips when many requests look up entities of this type at once.
+   * Lookups inside a transaction are never batched.
+   */
+  protected boolean batchLoadEnabled() {
+    return false;
+  }
+
+  /**
+   * How long the first lookup of a batch waits for others. Defaults to the
+   * {@code read.batch.window.ms} property.
+   */
+  protected long batchWindowMillis() {
+    return batchWindowMillis;
+  }
+
+  /**
+   * Number of pending lookups that dispatches a batch without waiting for the window to end.
+   * Defaults to the {@code read.batch.max.size} property.
+   */
+  protected int batchMaxSize() {
+    return batchMaxSize;
+  }
+
+  private BatchLoader<String, Document> batchLoader(boolean byId) {
+    if (!batchLoadEnabled() || TransactionSynchronizationManager.isActualTransactionActive()) {
+      return null;
+    }
+    BatchLoader<String, Document> loader = byId ? idLoader : slugLoader;
+    if (loader == null) {
+      synchronized (this) {
+        loader = byId ? idLoader : slugLoader;
+        if (loader == null) {
+          String field = byId ? AbstractMongoEntity.Fields.id : AbstractMongoEntity.Fields.slug;
+          loader = new BatchLoader<>(keys -> loadDocuments(field, keys), batchWindowMillis(),
+              batchMaxSize(), readExecutor());
+          if (byId) {
+            idLoader = loader;
+          } else {
+            slugLoader = loader;
+          }
+        }
+      }
+    }
+    return loader;
+  }
+
+  private Map<String, Document> loadDocuments(String field, List<String> keys) {
+    Class<T> type = metaData().getClassType();
+    Document filter = new QueryMapper(mongo.getConverter()).getMappedObject(
+        liveCriteria(setKeyCriteria(field).in(keys)).getCriteriaObject(),
+        mongo.getConverter().getMappingContext().getPersistentEntity(type));
+    List<Document> documents =
+        mongo.execute(type, collection -> collection.find(filter).into(new ArrayList<>()));
+    Map<String, Document> byKey = new HashMap<>();
+    String key = AbstractMongoEntity.Fields.id.equals(field) ? _ID : field;
+    documents.forEach(document -> byKey.put(String.valueOf(document.get(key)), document));
+    return byKey;
+  }
+
+  private <V> V await(CompletableFuture<V> future) {
+    try {
+      return future.join();
+    } catch (CompletionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw ex;
+    }
+  }
+
+  /**
+   * Reads one live document by id or slug straight from the collection, bypassing the cache and
+   * the batch loader.
+   */
+  protected Optional<T> findLive(String field, String key) {
+    if (!softDelete()) {
+      return AbstractMongoEntity.Fields.id.equals(field) ? repository().findById(key)
+          : Optional.ofNullable(repository().findBySlug(key));
+    }
+    return Optional.ofNullable(mongo.findOne(new Query(liveCriteria(setKeyCriteria(field).is(key))),
+        metaData().getClassType()));
+  }
+
+  protected Document toDocument(T entity) {
+    Document document = new Document();
+    mongo.getConverter().write(entity, document);
+    return document;
+  }
+
+  private T fromDocument(Document document) {
+    return mongo.getConverter().read(metaData().getClassType(), document);
+  }
+
+  /**
+   * Upper bound for {@link CountStrategy#CAPPED} counts. Defaults to the {@code read.count.cap}
+   * property.
+   */
+  protected int countCap() {
+    return countCap;
+  }
+
+  private Page<T> runCriteriaWithPage(MetaData<T> meta, Pageable pageable, Criteria criteria,
+      CountStrategy strategy, Projection projection) {
+    Query query = projection.query(criteria).with(pageable);
+    if (pageable.isUnpaged()) {
+      List<T> data = find(query, meta.getClassType());
+      return new FilterResultPage<T>(data, pageable, data.size(), true, null);
+    }
+    if (CountStrategy.NONE.equals(strategy)) {
+      query.limit(pageable.getPageSize() + 1);
+      List<T> data = find(query, meta.getClassType());
+      return pageWithoutCount(data, pageable, null);
+    }
+    Pair<Total, List<T>> result = countAndFind(meta, criteria, strategy, query);
+    Total total = result.getFirst();
+    return new FilterResultPage<T>(result.getSecond(), pageable, total.value(), total.exact(),
+        null);
+  }
+
+  /**
+   * Runs the count and the page fetch. With {@link #parallelCount()} both are issued concurrently
+   * on {@link #readExecutor()}, so the latency is that of the slower one rather than the sum. Inside
+   * a transaction they always run sequentially, as the session is bound to the calling thread.
+   */
+  private Pair<Total, List<T>> countAndFind(MetaData<T> meta, Criteria criteria,
+      CountStrategy strategy, Query query) {
+    if (parallelCount() && !TransactionSynchronizationManager.isActualTransactionActive()) {
+      return ConcurrencyUtil.invokeBoth(new ContextPropagatingExecutor(readExecutor()),
+          () -> count(meta, criteria, strategy), () -> find(query, meta.getClassType()));
+    }
+    Total total = count(meta, criteria, strategy);
+    return Pair.of(total, find(query, meta.getClassType()));
+  }
+
+  /**
+   * Whether paged reads run their count and fetch concurrently. Defaults to the
+   * {@code read.parallel.count} property (false).
+   */
+  protected boolean parallelCount() {
+    return parallelCount;
+  }
+
+  /**
+   * Executor for the background work of this service. The caller's {@code ApplicationContext} and
+   * MDC are propagated into every task. Defaults to a pool shared by all services.
+   */
+  protected Executor readExecutor() {
+    return ContextPropagatingExecutor.sharedPool();
+  }
+
+  /**
+   * Runs a find, timing it for the {@link QueryAnalyzer} when that is enabled.
+   */
+  private List<T> find(Query query, Class<T> type) {
+    if (!queryAnalyzer.isEnabled()) {
+      return mongo.find(query, type);
+    }
+    long start = System.nanoTime();
+    List<T> data = mongo.find(query, type);
+    queryAnalyzer.record(mongo, type, query, System.nanoTime() - start);
+    return data;
+  }
+
+  private Total count(MetaData<T> meta, Criteria criteria, CountStrategy strategy) {
+    if (CountStrategy.CAPPED.equals(strategy)) {
+      int cap = countCap();
+      long count = mongo.count(new Query(criteria).limit(cap), meta.getClassType());
+      return new Total(count, count < cap);
+    }
+    if (CountStrategy.ESTIMATED.equals(strategy) && criteria.getCriteriaObject().isEmpty()) {
+      return new Total(mongo.estimatedCount(meta.getClassType()), false);
+    }
+    return new Total(mongo.count(new Query(criteria), meta.getClassType()), true);
+  }
+
+  /**
+   * Builds a page from a fetch of {@code size + 1} rows. The extra row only signals that a next
+   * page exists, so the total is a lower bound unless this is the last page.
+   */
+  private Page<T> pageWithoutCount(List<T> data, Pageable pageable, String nextCursor) {
+    int size = pageable.getPageSize();
+    boolean hasNext = data.size() > size;
+    List<T> content = hasNext ? new ArrayList<>(data.subList(0, size)) : data;
+    long total = pageable.getOffset() + content.size() + (hasNext ? 1 : 0);
+    boolean exact = !hasNext && (!content.isEmpty() || pageable.getOffset() == 0);
+    return new FilterResultPage<T>(content, pageable, total, exact, nextCursor);
+  }
+
+  private Projection projection(FilterRequestDto filterRequestDto) {
+    List<String> include = filterRequestDto.getIncludeFields() == null ? List.of()
+        : filterRequestDto.getIncludeFields();
+    List<String> exclude = filterRequestDto.getExcludeFields() == null ? List.of()
+        : filterRequestDto.getExcludeFields();
+    assertValid(include.isEmpty() || exclude.isEmpty(), "filterRequestDto.excludeFields",
+        exclude);
+    return new Projection(include, exclude, false);
+  }
+
+  private boolean hasTextSearch(FilterRequestDto filterRequestDto) {
+    return SearchStrategy.TEXT_INDEX.equals(searchStrategy())
+        && filterRequestDto.getFilterModel() != null
+        && filterRequestDto.getFilterModel().values().stream()
+            .anyMatch(filter -> filter instanceof SearchColumnFilter
+                && StringUtils.hasText(((SearchColumnFilter) filter).getFilter()));
+  }
+
+  private boolean isKeyset(FilterRequestDto filterRequestDto) {
+    return PaginationMode.KEYSET.equals(filterRequestDto.getPaginationMode())
+        || StringUtils.hasText(filterRequestDto.getAfter());
+  }
+
+  private Page<T> runCriteriaWithKeyset(MetaData<T> meta, FilterRequestDto filterRequestDto,
+      Sort sort, Criteria criteria, CountStrategy strategy, Projection projection) {
+    int size = filterRequestDto.getSize();
+    List<Sort.Order> orders = keysetOrders(sort);
+    List<String> keys = orders.stream().map(this::cursorKey).collect(Collectors.toList());
+
+    Criteria seekCriteria = criteria;
+    if (StringUtils.hasText(filterRequestDto.getAfter())) {
+      List<Object> values = decodeCursor(filterRequestDto.getAfter(), keys);
+      seekCriteria = new Criteria().andOperator(criteria, keysetCriteria(orders, values));
+    }
+    Sort keysetSort = Sort.by(orders);
+    indexAdvisor.observe(meta.getClassType(), criteria, keysetSort);
+    List<String> sortProperties =
+        orders.stream().map(Sort.Order::getProperty).collect(Collectors.toList());
+    Query query = projection.keeping(sortProperties)
+        .applyTo(new Query(seekCriteria).with(keysetSort).limit(size + 1));
+    Total total = null;
+    List<T> data;
+    if (CountStrategy.NONE.equals(strategy)) {
+      data = find(query, meta.getClassType());
+    } else {
+      Pair<Total, List<T>> result = countAndFind(meta, criteria, strategy, query);
+      total = result.getFirst();
+      data = result.getSecond();
+    }
+
+    String nextCursor = null;
+    if (data.size() > size) {
+      nextCursor = encodeCursor(data.get(size - 1), orders, keys);
+    }
+    Pageable pageable = PageRequest.of(filterRequestDto.getPage(), size, keysetSort);
+    List<T> content = data.size() > size ? new ArrayList<>(data.subList(0, size)) : data;
+    if (total == null) {
+      boolean firstPage = !StringUtils.hasText(filterRequestDto.getAfter());
+      total = new Total(content.size() + (nextCursor == null ? 0 : 1),
+          firstPage && nextCursor == null);
+    }
+    return new FilterResultPage<T>(content, pageable, total.value(), total.exact(), nextCursor);
+  }
+
+  /**
+   * The requested sort with {@code _id} appended as the tie-breaker, so that every row has a
+   * unique position and the seek never skips or repeats rows sharing the same sort values.
+   */
+  private List<Sort.Order> keysetOrders(Sort sort) {
+    List<Sort.Order> orders = new ArrayList<>(sort.toList());
+    boolean sortedById = orders.stream().anyMatch(order -> isIdProperty(order.getProperty()));
+    if (!sortedById) {
+      Direction direction =
+          orders.isEmpty() ? Direction.ASC : orders.get(orders.size() - 1).getDirection();
+      orders.add(new Sort.Order(direction, AbstractMongoEntity.Fields.id));
+    }
+    return orders;
+  }
+
+  private boolean isIdProperty(String property) {
+    return AbstractMongoEntity.Fields.id.equals(property) || _ID.equals(property);
   }
 
-  private Page<T> runCriteriaWithPage(MetaData<T> meta, Pageable pageable, Criteria criteria) {
-    Query query = new Query(criteria);
-    long total = mongo.count(query, meta.getClassType());
-    query.with(pageable);
-    List<T> data = mongo.find(query, meta.getClassType());
-    return new PageImpl<T>(data, pageable, total);
+  private String cursorKey(Sort.Order order) {
+    return order.getProperty() + ":" + order.getDirection();
+  }
+
+  /**
+   * Builds {@code (k1 > v1) OR (k1 = v1 AND k2 > v2) OR ...} with the comparison flipped for
+   * descending keys. Nulls sort first in MongoDB, so they are handled explicitly.
+   */
+  private Criteria keysetCriteria(List<Sort.Order> orders, List<Object> values) {
+    List<Criteria> branches = new ArrayList<>();
+    for (int i = 0; i < orders.size(); i++) {
+      Criteria seek = seekCriteria(orders.get(i), values.get(i));
+      if (seek == null) {
+        continue;
+      }
+      List<Criteria> branch = new ArrayList<>();
+      for (int j = 0; j < i; j++) {
+        branch.add(setKeyCriteria(orders.get(j).getProperty()).is(values.get(j)));
+      }
+      branch.add(seek);
+      branches.add(branch.size() == 1 ? branch.get(0) : new Criteria().andOperator(branch));
+    }
+    return new Criteria().orOperator(branches);
+  }
+
+  private Criteria seekCriteria(Sort.Order order, Object value) {
+    String key = order.getProperty();
+    if (order.isAscending()) {
+      return value == null ? setKeyCriteria(key).ne(null) : setKeyCriteria(key).gt(value);
+    }
+    if (value == null) {
+      return null;
+    }
+    return new Criteria().orOperator(setKeyCriteria(key).lt(value), setKeyCriteria(key).is(null));
+  }
+
+  private String encodeCursor(T last, List<Sort.Order> orders, List<String> keys) {
+    List<Object> values = new ArrayList<>();
+    for (Sort.Order order : orders) {
+      Object value = sortValue(last, order.getProperty());
+      values.add(value == null ? null : mongo.getConverter().convertToMongoType(value));
+    }
+    return CursorUtil.encode(keys, values);
+  }
+
+  private Object sortValue(T entity, String property) {
+    if (isIdProperty(property)) {
+      return entity.getId();
+    }
+    try {
+      return BeanWrapperUtil.getValue(entity, property);
+    } catch (NullValueInNestedPathException ex) {
+      return null;
+    } catch (BeansException ex) {
+      throw requestInvalidException("filterRequestDto.sortModel", property);
+    }
+  }
+
+  private List<Object> decodeCursor(String after, List<String> keys) {
+    try {
+      return CursorUtil.decode(after, keys);
+    } catch (IllegalArgumentException ex) {
+      log.debug("Rejecting keyset cursor {}: {}", after, ex.getMessage());
+      throw requestInvalidException("filterRequestDto.after", after);
+    }
   }
 
   protected Sort buildSort(List<SortModel> sortModel, MetaData<T> meta) {
@@ -139,9 +859,10 @@ public abstract class AbstractReadService<T extends AbstractMongoEntity>
     }
 
     if (!criterias.isEmpty()) {
-      return new Criteria().andOperator(criterias.toArray(new Criteria[criterias.size()]));
+      return liveCriteria(
+          new Criteria().andOperator(criterias.toArray(new Criteria[criterias.size()])));
     }
-    return new Criteria();
+    return liveCriteria(new Criteria());
   }
 
   private void addCriteria(ColumnFilter filter, String key, List<Criteria> criterias) {
@@ -156,9 +877,40 @@ public abstract class AbstractReadService<T extends AbstractMongoEntity>
       addDateFilter(criterias, key, (DateColumnFilter) filter);
     } else if (filter instanceof ExactMatchColumnFilter) {
       addExactMatchCriteria(criterias, key, (ExactMatchColumnFilter) filter);
+    } else if (filter instanceof SearchColumnFilter) {
+      addSearchCriteria(criterias, key, (SearchColumnFilter) filter);
     }
   }
 
+  private void addSearchCriteria(List<Criteria> criterias, String key,
+      SearchColumnFilter filter) {
+    if (!StringUtils.hasText(filter.getFilter())) {
+      return;
+    }
+    if (SearchStrategy.TEXT_INDEX.equals(searchStrategy())) {
+      assertValid(CollectionUtils.isEmpty(filter.getFields()),
+          "filterRequestDto.filterModel." + key + ".fields", filter.getFields());
+      assertValid(criterias.stream().noneMatch(crit -> TEXT.equals(crit.getKey())),
+          "filterRequestDto.filterModel", key);
+      criterias.add(setKeyCriteria(TEXT).is(new Document("$search", filter.getFilter())));
+      return;
+    }
+    List<String> fields = new ArrayList<>();
+    if (CollectionUtils.isEmpty(filter.getFields())) {
+      fields.add(key);
+    } else {
+      fields.addAll(filter.getFields());
+    }
+    if (!filter.isSlugExcludedFromSearch()
+        && !fields.contains(AbstractMongoEntity.Fields.slug)) {
+      fields.add(AbstractMongoEntity.Fields.slug);
+    }
+    String regex = "^" + transformFreeTextSearchInput(filter.getFilter());
+    Criteria[] perField =
+        fields.stream().map(field -> setKeyCriteria(field).regex(regex)).toArray(Criteria[]::new);
+    criterias.add(perField.length == 1 ? perField[0] : new Criteria().orOperator(perField));
+  }
+
   private void addSetFilter(List<Criteria> criterias, String key, SetColumnFilter filter) {
     if (!CollectionUtils.isEmpty(filter.getValues())) {
       int i = 0;
@@ -376,4 +1128,74 @@ public abstract class AbstractReadService<T extends AbstractMongoEntity>
     return Criteria.where(key);
   }
 
+  private record Total(long value, boolean exact) {
+  }
+
+  /**
+   * Inclusion or exclusion projection; MongoDB does not allow mixing both. Optionally orders the
+   * results by {@code $text} relevance.
+   */
+  private record Projection(List<String> include, List<String> exclude, boolean textScore) {
+
+    static final Projection NONE = new Projection(List.of(), List.of(), false);
+
+    Projection sortedByTextScore() {
+      return new Projection(include, exclude, true);
+    }
+
+    Query query(Criteria criteria) {
+      return applyTo(textScore ? new TextScoreQuery(criteria) : new Query(criteria));
+    }
+
+    Query applyTo(Query query) {
+      if (!include.isEmpty()) {
+        query.fields().include(include.toArray(new String[include.size()]));
+      } else if (!exclude.isEmpty()) {
+        query.fields().exclude(exclude.toArray(new String[exclude.size()]));
+      }
+      return query;
+    }
+
+    /**
+     * Makes sure the given properties are loaded, e.g. the sort keys a cursor is built from.
+     */
+    Projection keeping(List<String> properties) {
+      if (!include.isEmpty()) {
+        List<String> included = new ArrayList<>(include);
+        properties.stream().filter(p -> !included.contains(p)).forEach(included::add);
+        return new Projection(included, exclude, textScore);
+      }
+      if (!exclude.isEmpty()) {
+        List<String> excluded = new ArrayList<>(exclude);
+        excluded.removeAll(properties);
+        excluded.remove(_ID);
+        return new Projection(include, excluded, textScore);
+      }
+      return this;
+    }
+  }
+
+  /**
+   * Query sorted by {@code $text} relevance ahead of any other sort, like {@code TextQuery} but
+   * for criteria that already carry the {@code $text} clause.
+   */
+  private static final class TextScoreQuery extends Query {
+
+    TextScoreQuery(Criteria criteria) {
+      super(criteria);
+    }
+
+    @Override
+    public Document getSortObject() {
+      Document sort = new Document(TEXT_SCORE, new Document("$meta", "textScore"));
+      sort.putAll(super.getSortObject());
+      return sort;
+    }
+
+    @Override
+    public boolean isSorted() {
+      return true;
+    }
+  }
+
 }
@@ -0,0 +1,123 @@
+package com.sixsprints.core.generic.read;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coalesces single-key lookups made by concurrent callers into one multi-key load. Keys requested
+ * within {@code windowMillis} of the first pending key are loaded together; a batch is dispatched
+ * early once it holds {@code maxBatchSize} keys. Callers asking for the same key share its future,
+ * so values must not be mutated by callers.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class BatchLoader<K, V> {
+
+  private static volatile ScheduledExecutorService ticker;
+
+  private final Function<List<K>, Map<K, V>> loader;
+
+  private final long windowMillis;
+
+  private final int maxBatchSize;
+
+  private final Executor executor;
+
+  private Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+
+  private boolean flushScheduled;
+
+  /**
+   * @param loader loads the values of a batch of distinct keys; keys missing from the returned map
+   *        resolve to null
+   * @param windowMillis how long the first key of a batch waits for others
+   * @param maxBatchSize number of keys that dispatches a batch immediately
+   * @param executor runs the loads, so neither callers nor the timer thread block on them
+   */
+  public BatchLoader(Function<List<K>, Map<K, V>> loader, long windowMillis, int maxBatchSize,
+      Executor executor) {
+    this.loader = loader;
+    this.windowMillis = windowMillis;
+    this.maxBatchSize = Math.max(1, maxBatchSize);
+    this.executor = executor;
+  }
+
+  public CompletableFuture<V> load(K key) {
+    CompletableFuture<V> future;
+    Map<K, CompletableFuture<V>> full = null;
+    synchronized (this) {
+      future = pending.get(key);
+      if (future != null) {
+        return future;
+      }
+      future = new CompletableFuture<>();
+      pending.put(key, future);
+      if (pending.size() >= maxBatchSize) {
+        full = pending;
+        pending = new LinkedHashMap<>();
+      } else if (!flushScheduled) {
+        flushScheduled = true;
+        ticker().schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+      }
+    }
+    if (full != null) {
+      dispatch(full);
+    }
+    return future;
+  }
+
+  private void flush() {
+    Map<K, CompletableFuture<V>> batch;
+    synchronized (this) {
+      flushScheduled = false;
+      if (pending.isEmpty()) {
+        return;
+      }
+      batch = pending;
+      pending = new LinkedHashMap<>();
+    }
+    dispatch(batch);
+  }
+
+  private void dispatch(Map<K, CompletableFuture<V>> batch) {
+    try {
+      executor.execute(() -> {
+        try {
+          Map<K, V> values = loader.apply(new ArrayList<>(batch.keySet()));
+          batch.forEach((key, future) -> future.complete(values.get(key)));
+        } catch (Throwable ex) {
+          batch.values().forEach(future -> future.completeExceptionally(ex));
+        }
+      });
+    } catch (RuntimeException ex) {
+      batch.values().forEach(future -> future.completeExceptionally(ex));
+    }
+  }
+
+  private static ScheduledExecutorService ticker() {
+    if (ticker == null) {
+      synchronized (BatchLoader.class) {
+        if (ticker == null) {
+          ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "mongo-core-batch-ticker");
+            thread.setDaemon(true);
+            return thread;
+          });
+          executor.setRemoveOnCancelPolicy(true);
+          ticker = executor;
+        }
+      }
+    }
+    return ticker;
+  }
+
+}
@@ -0,0 +1,146 @@
+package com.sixsprints.core.generic.read;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.bson.Document;
+
+import com.sixsprints.core.dto.CacheStats;
+
+/**
+ * Bounded LRU cache of entity documents keyed by id, with a secondary slug index and a time to
+ * live per entry. Documents rather than entities are kept, so every hit is converted into a fresh
+ * instance and callers cannot modify the cached state.
+ *
+ * <p>Every invalidation bumps a generation counter. A loader reads {@link #generation()} before
+ * going to the database and passes it to {@link #put}, which drops the value if an invalidation
+ * happened in between, so a slow read cannot cache a document older than a concurrent write.</p>
+ */
+public class EntityCache {
+
+  private final int maxSize;
+
+  private final long ttlMillis;
+
+  private final LongSupplier clock;
+
+  private final LinkedHashMap<String, Entry> byId = new LinkedHashMap<>(16, 0.75f, true);
+
+  private final Map<String, String> idBySlug = new HashMap<>();
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  private final LongAdder evictions = new LongAdder();
+
+  private final LongAdder invalidations = new LongAdder();
+
+  private long generation;
+
+  public EntityCache(int maxSize, long ttlMillis) {
+    this(maxSize, ttlMillis, System::currentTimeMillis);
+  }
+
+  public EntityCache(int maxSize, long ttlMillis, LongSupplier clock) {
+    this.maxSize = maxSize;
+    this.ttlMillis = ttlMillis;
+    this.clock = clock;
+  }
+
+  public synchronized Document getById(String id) {
+    Entry entry = byId.get(id);
+    if (entry != null && entry.expiresAt() <= clock.getAsLong()) {
+      remove(id);
+      evictions.increment();
+      entry = null;
+    }
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return entry.document();
+  }
+
+  public synchronized Document getBySlug(String slug) {
+    String id = idBySlug.get(slug);
+    if (id == null) {
+      misses.increment();
+      return null;
+    }
+    return getById(id);
+  }
+
+  public synchronized long generation() {
+    return generation;
+  }
+
+  /**
+   * Caches a document loaded while the cache was at {@code loadedAt} generation; ignored if the
+   * cache has been invalidated since.
+   */
+  public synchronized void put(String id, String slug, Document document, long loadedAt) {
+    if (id == null || loadedAt != generation || maxSize <= 0) {
+      return;
+    }
+    remove(id);
+    byId.put(id, new Entry(slug, document, clock.getAsLong() + ttlMillis));
+    if (slug != null) {
+      idBySlug.put(slug, id);
+    }
+    Iterator<Map.Entry<String, Entry>> eldest = byId.entrySet().iterator();
+    while (byId.size() > maxSize && eldest.hasNext()) {
+      Map.Entry<String, Entry> entry = eldest.next();
+      eldest.remove();
+      removeSlug(entry.getKey(), entry.getValue());
+      evictions.increment();
+    }
+  }
+
+  public synchronized void invalidate(String id, String slug) {
+    generation++;
+    if (id != null && remove(id)) {
+      invalidations.increment();
+    }
+    String slugId = slug == null ? null : idBySlug.get(slug);
+    if (slugId != null && remove(slugId)) {
+      invalidations.increment();
+    }
+  }
+
+  public synchronized void invalidateAll() {
+    generation++;
+    invalidations.add(byId.size());
+    byId.clear();
+    idBySlug.clear();
+  }
+
+  public synchronized CacheStats stats() {
+    return CacheStats.builder().hits(hits.sum()).misses(misses.sum()).evictions(evictions.sum())
+        .invalidations(invalidations.sum()).size(byId.size()).build();
+  }
+
+  private boolean remove(String id) {
+    Entry entry = byId.remove(id);
+    if (entry == null) {
+      return false;
+    }
+    removeSlug(id, entry);
+    return true;
+  }
+
+  private void removeSlug(String id, Entry entry) {
+    if (entry.slug() != null && id.equals(idBySlug.get(entry.slug()))) {
+      idBySlug.remove(entry.slug());
+    }
+  }
+
+  private record Entry(String slug, Document document, long expiresAt) {
+  }
+
+}
@@ -1,13 +1,19 @@
 package com.sixsprints.core.generic.read;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.query.Criteria;
 import com.sixsprints.core.domain.AbstractMongoEntity;
+import com.sixsprints.core.dto.CacheStats;
 import com.sixsprints.core.dto.FilterRequestDto;
+import com.sixsprints.core.dto.IndexAdvice;
+import com.sixsprints.core.dto.QueryShapeStats;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 
@@ -118,6 +124,28 @@ public interface GenericReadService<T extends AbstractMongoEntity> {
    */
   Optional<T> findOneById(@Nullable String id);
 
+  /**
+   * Finds all entities with the given IDs in as few queries as possible.
+   * 
+   * <p>The IDs are looked up with {@code $in} queries of at most {@code multiGetChunkSize()} keys
+   * each; when there are several chunks they run in parallel. Blank and repeated IDs are ignored.
+   * Use this instead of calling {@link #findOneById(String)} in a loop, e.g. to enrich a list of
+   * DTOs with referenced entities.</p>
+   * 
+   * <p><strong>Example:</strong></p>
+   * <pre>{@code
+   * Map<String, User> users = userService.findAllByIds(orderUserIds);
+   * orders.forEach(order -> order.setUser(users.get(order.getUserId())));
+   * }</pre>
+   * 
+   * @param ids the IDs to look up (must not be null)
+   * @return the found entities keyed by ID, in the order the IDs were given; IDs that do not exist
+   *         are absent
+   * 
+   * @see #findAllBySlugs(Collection) for lookup by slug
+   */
+  Map<String, T> findAllByIds(@Nonnull Collection<String> ids);
+
   /**
    * Finds a single entity by its slug field.
    * 
@@ -141,6 +169,37 @@ public interface GenericReadService<T extends AbstractMongoEntity> {
    */
   Optional<T> findOneBySlug(@Nullable String slug);
 
+  /**
+   * Finds all entities with the given slugs in as few queries as possible.
+   * 
+   * <p>Works like {@link #findAllByIds(Collection)}, keyed by slug.</p>
+   * 
+   * @param slugs the slugs to look up (must not be null)
+   * @return the found entities keyed by slug, in the order the slugs were given; slugs that do not
+   *         exist are absent
+   * 
+   * @see #findAllByIds(Collection) for lookup by ID
+   */
+  Map<String, T> findAllBySlugs(@Nonnull Collection<String> slugs);
+
+  /**
+   * Finds a single entity by its slug field, loading only the given properties.
+   * 
+   * <p>Behaves like {@link #findOneBySlug(String)} but applies a MongoDB projection, so large
+   * fields that the caller does not need are neither sent over the wire nor decoded. Properties
+   * outside the projection are left null on the returned entity (the id is always loaded).</p>
+   * 
+   * <p><strong>Warning:</strong> The returned entity is partial. Never pass it to a full update,
+   * as the missing properties would be written back as nulls.</p>
+   * 
+   * @param slug the slug value to search for (may be null)
+   * @param includeFields the properties to load; null or empty loads the whole entity
+   * @return an Optional containing the partially loaded entity if found, empty otherwise
+   * 
+   * @see #findOneBySlug(String) for loading the whole entity
+   */
+  Optional<T> findOneBySlug(@Nullable String slug, @Nullable Collection<String> includeFields);
+
   /**
    * Finds a single entity matching the specified criteria.
    * 
@@ -262,6 +321,23 @@ public interface GenericReadService<T extends AbstractMongoEntity> {
    *   <li>Consistent API for different entity types</li>
    * </ul>
    * 
+   * <p><strong>Keyset Pagination:</strong> When {@code paginationMode} is {@code KEYSET} or an
+   * {@code after} cursor is supplied, the page is read with an index seek past the cursor instead
+   * of skip/limit, so deep pages cost the same as the first one. The returned page is a
+   * {@link com.sixsprints.core.dto.FilterResultPage} whose {@code nextCursor} fetches the following
+   * page ({@code null} on the last one). {@code _id} is appended to the sort as a tie-breaker; an
+   * index on the sort columns followed by {@code _id} keeps each page a bounded seek.</p>
+   * 
+   * <p><strong>Projection:</strong> {@code includeFields} or {@code excludeFields} (not both)
+   * restrict the properties loaded for each row. Sort keys are always loaded in keyset mode. Rows
+   * loaded with a projection are partial and must not be used for full updates.</p>
+   * 
+   * <p><strong>Free-Text Search:</strong> A {@code text} filter is matched according to the
+   * service's {@code searchStrategy()}. {@code PREFIX} matches {@code ^input} against each of its
+   * {@code fields} (plus {@code slug} unless excluded), which a regular index can serve.
+   * {@code TEXT_INDEX} issues a {@code $text} query against the collection's text index and, when
+   * no sort is requested on an offset page, orders the rows by relevance.</p>
+   * 
    * <p><strong>Use Cases:</strong></p>
    * <ul>
    *   <li>User-facing search functionality</li>
@@ -277,4 +353,81 @@ public interface GenericReadService<T extends AbstractMongoEntity> {
    */
   Page<T> filterByFilterRequestDto(@Nonnull FilterRequestDto filterRequestDto);
 
+  /**
+   * Streams all entities matching the criteria in the given order over a database cursor.
+   * 
+   * <p>Unlike {@link #findAllList()} or {@link #filterByCriteria(Criteria)}, the results are never
+   * materialised: documents are fetched from the server in batches of the configured cursor batch
+   * size while the stream is consumed, so memory use stays constant regardless of the result
+   * size.</p>
+   * 
+   * <p><strong>Important:</strong> The stream holds an open server cursor and must be closed,
+   * preferably with try-with-resources.</p>
+   * 
+   * <pre>{@code
+   * try (Stream<User> users = userService.streamByCriteria(criteria, sort)) {
+   *   users.forEach(this::process);
+   * }
+   * }</pre>
+   * 
+   * @param criteria the MongoDB criteria to filter entities (must not be null)
+   * @param sort the sorting configuration (must not be null, may be unsorted)
+   * @return a lazily populated stream of matching entities that must be closed after use
+   * 
+   * @see #streamByFilterRequestDto(FilterRequestDto) for streaming grid style requests
+   */
+  Stream<T> streamByCriteria(@Nonnull Criteria criteria, @Nonnull Sort sort);
+
+  /**
+   * Streams all entities matching the filters and sort of the FilterRequestDto over a database
+   * cursor.
+   * 
+   * <p>The filter model and sort model are applied exactly as in
+   * {@link #filterByFilterRequestDto(FilterRequestDto)}. The {@code page} is ignored and a
+   * positive {@code size} caps the number of streamed rows. The stream must be closed after
+   * use.</p>
+   * 
+   * @param filterRequestDto the filter request containing search criteria and sorting (must not be null)
+   * @return a lazily populated stream of matching entities that must be closed after use
+   * 
+   * @see #streamByCriteria(Criteria, Sort) for streaming with MongoDB Criteria
+   */
+  Stream<T> streamByFilterRequestDto(@Nonnull FilterRequestDto filterRequestDto);
+
+  /**
+   * Returns the counters of this service's entity cache.
+   * 
+   * <p>When the implementation enables caching, {@link #findOneById(String)} and
+   * {@link #findOneBySlug(String)} are served from a bounded in-process LRU cache with a time to
+   * live. The update and delete operations of the service invalidate the affected entries; writes
+   * made outside this service are only seen once an entry expires. Reads inside a transaction
+   * always go to the database.</p>
+   * 
+   * @return hits, misses, evictions, invalidations and current size; all zero when caching is off
+   */
+  CacheStats cacheStats();
+
+  /**
+   * Returns the query shapes recorded for this service's collection by the query analyzer.
+   * 
+   * <p>When {@code read.query.analyzer.enabled} is set, every find of the paged and keyset reads is
+   * reduced to a shape (filter fields and operators without values, and the sort), timed and
+   * explained in the background. Shapes of other collections are left out.</p>
+   * 
+   * @return one entry per shape, the most expensive by total time first; empty when the analyzer is
+   *         off
+   */
+  List<QueryShapeStats> queryShapeStats();
+
+  /**
+   * Returns the indexes the index advisor suggests for this service's collection.
+   * 
+   * <p>When {@code read.index.advisor.enabled} is set, the filter and sort keys of the paged,
+   * streamed and keyset reads are recorded, and every combination no existing index serves becomes
+   * one suggestion. Nothing is created; review the suggestions before creating any.</p>
+   * 
+   * @return one entry per suggested index, the most observed first; empty when the advisor is off
+   */
+  List<IndexAdvice> indexAdvice();
+
 }
@@ -0,0 +1,342 @@
+package com.sixsprints.core.generic.read;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import com.sixsprints.core.annotation.SoftDeletable;
+import com.sixsprints.core.domain.AbstractMongoEntity;
+import com.sixsprints.core.dto.IndexAdvice;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Collects the filter and sort keys of the {@code FilterRequestDto} reads and suggests the compound
+ * indexes they need. Each read becomes a candidate index ordered by the equality-sort-range rule:
+ * equality-matched fields first, then the sort fields with their directions, then range-matched
+ * fields. {@link #advise(MongoOperations)} lists the candidates not served by an existing index,
+ * ranked by how many observed reads they would serve. Fields under {@code $or}, {@code $nor} and
+ * {@code $text} are ignored, as a single compound index cannot serve them. On
+ * {@code @SoftDeletable} entities the {@code deleted} predicate every read carries is left out, the
+ * partial indexes filtered on {@code deleted: false} count as serving the reads, and the advice is
+ * for such a partial index too. Enable with {@code read.index.advisor.enabled=true}.
+ */
+@Slf4j
+public class IndexAdvisor {
+
+  private static final Set<String> EQUALITY_OPERATORS = Set.of("$eq", "$in");
+
+  private static final String AND = "$and";
+
+  private static final String ID = "id";
+
+  private static final String LIVE_SUFFIX = "_live";
+
+  @Value("${read.index.advisor.enabled:false}")
+  private boolean enabled;
+
+  @Value("${read.index.advisor.max.candidates:200}")
+  private int maxCandidates;
+
+  private final Map<Class<?>, Map<String, Candidate>> observed = new ConcurrentHashMap<>();
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Records the keys of one read of {@code type}.
+   */
+  public void observe(Class<?> type, Criteria criteria, Sort sort) {
+    if (!enabled) {
+      return;
+    }
+    Set<String> equality = new TreeSet<>();
+    Set<String> range = new TreeSet<>();
+    classify(criteria.getCriteriaObject(), equality, range);
+    range.removeAll(equality);
+    if (softDeletable(type)) {
+      equality.remove(AbstractMongoEntity.Fields.deleted);
+      range.remove(AbstractMongoEntity.Fields.deleted);
+    }
+
+    LinkedHashMap<String, Integer> keys = new LinkedHashMap<>();
+    equality.forEach(key -> keys.put(key, 1));
+    int equalityCount = keys.size();
+    sort.forEach(order -> keys.putIfAbsent(order.getProperty(), order.isAscending() ? 1 : -1));
+    int sortCount = keys.size() - equalityCount;
+    range.forEach(key -> keys.putIfAbsent(key, 1));
+    if (keys.isEmpty() || keys.keySet().equals(Set.of(ID))) {
+      return;
+    }
+
+    Map<String, Candidate> candidates =
+        observed.computeIfAbsent(type, t -> new ConcurrentHashMap<>());
+    String id = keys.toString();
+    Candidate candidate = candidates.get(id);
+    if (candidate == null) {
+      if (candidates.size() >= maxCandidates) {
+        return;
+      }
+      candidate =
+          candidates.computeIfAbsent(id, k -> new Candidate(keys, equalityCount, sortCount));
+    }
+    candidate.count.increment();
+  }
+
+  /**
+   * Candidate indexes that no existing index of the collection serves, the most used first.
+   */
+  public List<IndexAdvice> advise(MongoOperations mongo) {
+    List<IndexAdvice> advice = new ArrayList<>();
+    observed.keySet().forEach(type -> advice.addAll(advise(mongo, type)));
+    advice.sort(Comparator.comparingLong(IndexAdvice::getObservations).reversed());
+    return advice;
+  }
+
+  /**
+   * Same as {@link #advise(MongoOperations)}, for the reads of {@code type} only.
+   */
+  public List<IndexAdvice> advise(MongoOperations mongo, Class<?> type) {
+    Map<String, Candidate> candidates = observed.get(type);
+    if (candidates == null) {
+      return new ArrayList<>();
+    }
+    List<IndexAdvice> advice = new ArrayList<>();
+    QueryMapper mapper = new QueryMapper(mongo.getConverter());
+    MongoPersistentEntity<?> entity =
+        mongo.getConverter().getMappingContext().getPersistentEntity(type);
+    String collection = mongo.getCollectionName(type);
+    Document partial =
+        softDeletable(type) ? new Document(AbstractMongoEntity.Fields.deleted, false) : null;
+    List<List<IndexField>> existing = usable(mongo.indexOps(type).getIndexInfo(), partial);
+    long total = candidates.values().stream().mapToLong(c -> c.count.sum()).sum();
+    for (Candidate candidate : candidates.values()) {
+      LinkedHashMap<String, Integer> keys = mappedKeys(mapper, entity, candidate.keys);
+      if (existing.stream().anyMatch(fields -> serves(fields, keys, candidate))) {
+        continue;
+      }
+      long count = candidate.count.sum();
+      advice.add(IndexAdvice.builder().collection(collection).keys(keys)
+          .partialFilterExpression(partial).observations(count)
+          .share(total == 0 ? 0 : (double) count / total)
+          .command(command(collection, keys, partial)).build());
+    }
+    advice.sort(Comparator.comparingLong(IndexAdvice::getObservations).reversed());
+    return advice;
+  }
+
+  /**
+   * Creates the given indexes and returns their names. Advice whose keys are a prefix of an
+   * existing index of the collection (or of one created earlier in the same call), in the same or
+   * the reverse direction, is skipped.
+   */
+  public List<String> createIndexes(MongoOperations mongo, List<IndexAdvice> advice) {
+    List<String> names = new ArrayList<>();
+    Map<String, List<List<IndexField>>> existing = new HashMap<>();
+    for (IndexAdvice anAdvice : advice) {
+      Document partial = anAdvice.getPartialFilterExpression() == null ? null
+          : new Document(anAdvice.getPartialFilterExpression());
+      List<List<IndexField>> indexes = existing.computeIfAbsent(anAdvice.getCollection(),
+          collection -> usable(mongo.indexOps(collection).getIndexInfo(), partial));
+      List<IndexField> fields = new ArrayList<>();
+      anAdvice.getKeys()
+          .forEach((key, direction) -> fields.add(IndexField.create(key, direction(direction))));
+      if (indexes.stream().anyMatch(index -> hasPrefix(index, fields))) {
+        log.info("Skipped index {} on {}, an existing index covers it", anAdvice.getKeys(),
+            anAdvice.getCollection());
+        continue;
+      }
+      Index index = new Index();
+      fields.forEach(field -> index.on(field.getKey(), field.getDirection()));
+      if (partial != null) {
+        index.partial(PartialIndexFilter.of(partial))
+            .named(name(anAdvice.getKeys()) + LIVE_SUFFIX);
+      }
+      String name = mongo.indexOps(anAdvice.getCollection()).createIndex(index);
+      log.info("Created index {} on {}", name, anAdvice.getCollection());
+      indexes.add(fields);
+      names.add(name);
+    }
+    return names;
+  }
+
+  public void reset() {
+    observed.clear();
+  }
+
+  private static boolean softDeletable(Class<?> type) {
+    return type.isAnnotationPresent(SoftDeletable.class);
+  }
+
+  /**
+   * The fields of the indexes that can serve reads carrying {@code partial}: full indexes, and
+   * partial ones filtered on exactly {@code partial}.
+   */
+  private static List<List<IndexField>> usable(List<IndexInfo> indexes, Document partial) {
+    return indexes.stream()
+        .filter(index -> index.getPartialFilterExpression() == null || partial != null
+            && partial.equals(Document.parse(index.getPartialFilterExpression())))
+        .map(IndexInfo::getIndexFields).collect(Collectors.toList());
+  }
+
+  private static void classify(Document criteria, Set<String> equality, Set<String> range) {
+    criteria.forEach((key, value) -> {
+      if (key.startsWith("$")) {
+        if (AND.equals(key) && value instanceof List) {
+          ((List<?>) value).stream().filter(Document.class::isInstance)
+              .forEach(nested -> classify((Document) nested, equality, range));
+        }
+      } else if (value instanceof Document && isOperatorDocument((Document) value)) {
+        if (EQUALITY_OPERATORS.containsAll(((Document) value).keySet())) {
+          equality.add(key);
+        } else {
+          range.add(key);
+        }
+      } else if (value instanceof Pattern) {
+        range.add(key);
+      } else {
+        equality.add(key);
+      }
+    });
+  }
+
+  private static boolean isOperatorDocument(Document document) {
+    return !document.isEmpty() && document.keySet().stream().allMatch(k -> k.startsWith("$"));
+  }
+
+  private static LinkedHashMap<String, Integer> mappedKeys(QueryMapper mapper,
+      MongoPersistentEntity<?> entity, LinkedHashMap<String, Integer> keys) {
+    Document mapped = mapper.getMappedSort(new Document(keys), entity);
+    LinkedHashMap<String, Integer> result = new LinkedHashMap<>();
+    mapped.forEach((key, value) -> result.put(key, ((Number) value).intValue()));
+    return result;
+  }
+
+  /**
+   * Whether an index starts with the candidate's equality fields (in any order), continues with
+   * its sort fields (all in the same or all in the reverse direction) and then holds its range
+   * fields.
+   */
+  private static boolean serves(List<IndexField> fields, LinkedHashMap<String, Integer> keys,
+      Candidate candidate) {
+    if (fields.stream().anyMatch(f -> f.isGeo() || f.isText() || f.isHashed() || f.isWildcard())
+        || fields.size() < keys.size()) {
+      return false;
+    }
+    List<Map.Entry<String, Integer>> wanted = new ArrayList<>(keys.entrySet());
+    int equalityCount = candidate.equalityCount;
+    int sortEnd = equalityCount + candidate.sortCount;
+
+    Set<String> equality = new HashSet<>();
+    Set<String> prefix = new HashSet<>();
+    for (int i = 0; i < equalityCount; i++) {
+      equality.add(wanted.get(i).getKey());
+      prefix.add(fields.get(i).getKey());
+    }
+    if (!equality.equals(prefix)) {
+      return false;
+    }
+    Boolean reversed = null;
+    for (int i = equalityCount; i < sortEnd; i++) {
+      IndexField field = fields.get(i);
+      if (!field.getKey().equals(wanted.get(i).getKey())) {
+        return false;
+      }
+      boolean same = direction(wanted.get(i).getValue()).equals(field.getDirection());
+      if (reversed != null && reversed == same) {
+        return false;
+      }
+      reversed = !same;
+    }
+    Set<String> rest = fields.subList(sortEnd, fields.size()).stream().map(IndexField::getKey)
+        .collect(Collectors.toSet());
+    return wanted.subList(sortEnd, wanted.size()).stream().allMatch(e -> rest.contains(e.getKey()));
+  }
+
+  private static boolean hasPrefix(List<IndexField> index, List<IndexField> fields) {
+    if (index.size() < fields.size()) {
+      return false;
+    }
+    Boolean reversed = null;
+    for (int i = 0; i < fields.size(); i++) {
+      IndexField field = index.get(i);
+      if (field.getDirection() == null || !field.getKey().equals(fields.get(i).getKey())) {
+        return false;
+      }
+      boolean same = field.getDirection().equals(fields.get(i).getDirection());
+      if (reversed != null && reversed == same) {
+        return false;
+      }
+      reversed = !same;
+    }
+    return true;
+  }
+
+  private static Direction direction(Integer value) {
+    return value != null && value < 0 ? Direction.DESC : Direction.ASC;
+  }
+
+  private static String command(String collection, LinkedHashMap<String, Integer> keys,
+      Document partial) {
+    StringBuilder command =
+        new StringBuilder("mongo.indexOps(\"").append(collection).append("\").createIndex(new Index()");
+    keys.forEach((key, direction) -> command.append(".on(\"").append(key)
+        .append("\", Direction.").append(direction(direction)).append(")"));
+    if (partial != null) {
+      command.append(".partial(PartialIndexFilter.of(Criteria.where(\"")
+          .append(AbstractMongoEntity.Fields.deleted).append("\").is(false))).named(\"")
+          .append(name(keys)).append(LIVE_SUFFIX).append("\")");
+    }
+    return command.append(");").toString();
+  }
+
+  /**
+   * The name MongoDB gives an index on {@code keys} by default.
+   */
+  private static String name(Map<String, Integer> keys) {
+    return keys.entrySet().stream().map(key -> key.getKey() + "_" + key.getValue())
+        .collect(Collectors.joining("_"));
+  }
+
+  private static final class Candidate {
+
+    private final LinkedHashMap<String, Integer> keys;
+
+    private final int equalityCount;
+
+    private final int sortCount;
+
+    private final LongAdder count = new LongAdder();
+
+    private Candidate(LinkedHashMap<String, Integer> keys, int equalityCount, int sortCount) {
+      this.keys = keys;
+      this.equalityCount = equalityCount;
+      this.sortCount = sortCount;
+    }
+  }
+
+}
@@ -0,0 +1,295 @@
+package com.sixsprints.core.generic.read;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.FindIterable;
+import com.sixsprints.core.dto.QueryShapeStats;
+import com.sixsprints.core.utils.ApplicationContext;
+import com.sixsprints.core.utils.ContextPropagatingExecutor;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Opt-in analyzer of the queries issued by the generic read paths. Every query is reduced to a
+ * shape (collection, filter keys and operators without values, sort) and timed. A shape is
+ * explained in the background the first time it is seen, when an execution is slow and on a
+ * random sample, and the plan summary is kept for {@link #snapshot()} and logged with the request
+ * id of the triggering call. Enable with {@code read.query.analyzer.enabled=true}.
+ */
+@Slf4j
+public class QueryAnalyzer {
+
+  private static final String PLACEHOLDER = "?";
+
+  private static final long MIN_EXPLAIN_INTERVAL_MILLIS = 60_000L;
+
+  @Value("${read.query.analyzer.enabled:false}")
+  private boolean enabled;
+
+  @Value("${read.query.analyzer.slow.ms:100}")
+  private long slowMillis;
+
+  @Value("${read.query.analyzer.sample.rate:0.01}")
+  private double sampleRate;
+
+  @Value("${read.query.analyzer.max.shapes:1000}")
+  private int maxShapes;
+
+  private final Map<String, Shape> shapes = new ConcurrentHashMap<>();
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Records one execution of {@code query} against the collection of {@code type} and schedules an
+   * explain when due. Shapes beyond {@code read.query.analyzer.max.shapes} are not tracked.
+   */
+  public void record(MongoOperations mongo, Class<?> type, Query query, long elapsedNanos) {
+    if (!enabled) {
+      return;
+    }
+    String collection = mongo.getCollectionName(type);
+    String filterShape = ((Document) shape(query.getQueryObject())).toJson();
+    String sortShape = query.getSortObject().toJson();
+    String key = collection + '|' + filterShape + '|' + sortShape;
+    Shape shape = shapes.get(key);
+    if (shape == null) {
+      if (shapes.size() >= maxShapes) {
+        return;
+      }
+      shape = shapes.computeIfAbsent(key, k -> new Shape(collection, filterShape, sortShape));
+    }
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    String requestId = ApplicationContext.getCurrentRequest().getRequestId();
+    boolean first = shape.executed(elapsedMillis, requestId) == 1;
+    boolean slow = elapsedMillis >= slowMillis;
+    if (slow) {
+      log.info("[{}] Slow query on {} took {} ms: {} sort {}", requestId, collection,
+          elapsedMillis, filterShape, sortShape);
+    }
+    if (first || ((slow || ThreadLocalRandom.current().nextDouble() < sampleRate)
+        && shape.explainDue())) {
+      scheduleExplain(mongo, type, query, shape, requestId);
+    }
+  }
+
+  /**
+   * Statistics of all tracked shapes, the most expensive (by total time) first.
+   */
+  public List<QueryShapeStats> snapshot() {
+    return shapes.values().stream().map(Shape::toStats)
+        .sorted(Comparator.comparingLong(QueryShapeStats::getTotalMillis).reversed())
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Statistics of the tracked shapes of one collection, the most expensive first.
+   */
+  public List<QueryShapeStats> snapshot(String collection) {
+    return snapshot().stream().filter(stats -> stats.getCollection().equals(collection))
+        .collect(Collectors.toList());
+  }
+
+  public void reset() {
+    shapes.clear();
+  }
+
+  protected Executor explainExecutor() {
+    return new ContextPropagatingExecutor(ContextPropagatingExecutor.sharedPool());
+  }
+
+  private void scheduleExplain(MongoOperations mongo, Class<?> type, Query query, Shape shape,
+      String requestId) {
+    if (!shape.explaining.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      explainExecutor().execute(() -> {
+        try {
+          explain(mongo, type, query, shape, requestId);
+        } catch (RuntimeException ex) {
+          log.warn("[{}] Could not explain query on {}: {}", requestId, shape.collection,
+              ex.getMessage());
+        } finally {
+          shape.explaining.set(false);
+        }
+      });
+    } catch (RuntimeException ex) {
+      shape.explaining.set(false);
+      log.warn("[{}] Could not schedule explain: {}", requestId, ex.getMessage());
+    }
+  }
+
+  private void explain(MongoOperations mongo, Class<?> type, Query query, Shape shape,
+      String requestId) {
+    MongoPersistentEntity<?> entity =
+        mongo.getConverter().getMappingContext().getPersistentEntity(type);
+    QueryMapper mapper = new QueryMapper(mongo.getConverter());
+    Document filter = mapper.getMappedObject(query.getQueryObject(), entity);
+    Document sort = mapper.getMappedSort(query.getSortObject(), entity);
+    Document plan = mongo.execute(type, collection -> {
+      FindIterable<Document> find = collection.find(filter).sort(sort);
+      if (query.getSkip() > 0) {
+        find.skip((int) query.getSkip());
+      }
+      if (query.isLimited()) {
+        find.limit(query.getLimit());
+      }
+      return find.explain(ExplainVerbosity.EXECUTION_STATS);
+    });
+
+    Document executionStats = plan.get("executionStats", Document.class);
+    Document queryPlanner = plan.get("queryPlanner", Document.class);
+    Set<String> stages = new LinkedHashSet<>();
+    collectStages(queryPlanner == null ? null : queryPlanner.get("winningPlan"), stages);
+    QueryShapeStats stats = shape.explained(number(executionStats, "totalDocsExamined"),
+        number(executionStats, "totalKeysExamined"), number(executionStats, "nReturned"),
+        String.join(" > ", stages), stages.contains("COLLSCAN"), stages.contains("SORT"));
+
+    if (stats.isCollectionScan() || stats.isInMemorySort()) {
+      log.warn("[{}] Query on {} uses {}: {} sort {} examined {} docs / {} keys for {} returned",
+          requestId, stats.getCollection(), stats.getWinningPlan(), stats.getFilterShape(),
+          stats.getSortShape(), stats.getDocsExamined(), stats.getKeysExamined(),
+          stats.getReturned());
+    } else {
+      log.debug("[{}] Query on {} uses {}: {} sort {} examined {} docs / {} keys for {} returned",
+          requestId, stats.getCollection(), stats.getWinningPlan(), stats.getFilterShape(),
+          stats.getSortShape(), stats.getDocsExamined(), stats.getKeysExamined(),
+          stats.getReturned());
+    }
+  }
+
+  /**
+   * Replaces every value with a placeholder, keeping field names, operators and the structure of
+   * logical operators.
+   */
+  private static Object shape(Object value) {
+    if (value instanceof Map) {
+      Document shaped = new Document();
+      ((Map<?, ?>) value).forEach((key, nested) -> shaped.put(String.valueOf(key), shape(nested)));
+      return shaped;
+    }
+    if (value instanceof List && ((List<?>) value).stream().allMatch(Map.class::isInstance)) {
+      List<Object> shaped = new ArrayList<>();
+      ((List<?>) value).forEach(nested -> shaped.add(shape(nested)));
+      return shaped;
+    }
+    return PLACEHOLDER;
+  }
+
+  private static void collectStages(Object plan, Set<String> stages) {
+    if (plan instanceof Document) {
+      Object stage = ((Document) plan).get("stage");
+      if (stage instanceof String) {
+        stages.add((String) stage);
+      }
+      ((Document) plan).values().forEach(nested -> collectStages(nested, stages));
+    } else if (plan instanceof List) {
+      ((List<?>) plan).forEach(nested -> collectStages(nested, stages));
+    }
+  }
+
+  private static long number(Document document, String key) {
+    Object value = document == null ? null : document.get(key);
+    return value instanceof Number ? ((Number) value).longValue() : 0L;
+  }
+
+  private static final class Shape {
+
+    private final String collection;
+
+    private final String filterShape;
+
+    private final String sortShape;
+
+    private final AtomicBoolean explaining = new AtomicBoolean();
+
+    private long executions;
+
+    private long totalMillis;
+
+    private long maxMillis;
+
+    private long explains;
+
+    private long docsExamined;
+
+    private long keysExamined;
+
+    private long returned;
+
+    private String winningPlan;
+
+    private boolean collectionScan;
+
+    private boolean inMemorySort;
+
+    private String lastRequestId;
+
+    private long lastExplainedAt;
+
+    private Shape(String collection, String filterShape, String sortShape) {
+      this.collection = collection;
+      this.filterShape = filterShape;
+      this.sortShape = sortShape;
+    }
+
+    synchronized long executed(long millis, String requestId) {
+      totalMillis += millis;
+      maxMillis = Math.max(maxMillis, millis);
+      lastRequestId = requestId;
+      return ++executions;
+    }
+
+    synchronized boolean explainDue() {
+      return System.currentTimeMillis() - lastExplainedAt >= MIN_EXPLAIN_INTERVAL_MILLIS;
+    }
+
+    synchronized QueryShapeStats explained(long docsExamined, long keysExamined, long returned,
+        String winningPlan, boolean collectionScan, boolean inMemorySort) {
+      this.explains++;
+      this.docsExamined = docsExamined;
+      this.keysExamined = keysExamined;
+      this.returned = returned;
+      this.winningPlan = winningPlan;
+      this.collectionScan = collectionScan;
+      this.inMemorySort = inMemorySort;
+      this.lastExplainedAt = System.currentTimeMillis();
+      return toStats();
+    }
+
+    synchronized QueryShapeStats toStats() {
+      long divisor = Math.max(returned, 1L);
+      return QueryShapeStats.builder().collection(collection).filterShape(filterShape)
+          .sortShape(sortShape).executions(executions).totalMillis(totalMillis)
+          .maxMillis(maxMillis).explains(explains).docsExamined(docsExamined)
+          .keysExamined(keysExamined).returned(returned)
+          .docsExaminedPerReturned((double) docsExamined / divisor)
+          .keysExaminedPerReturned((double) keysExamined / divisor).winningPlan(winningPlan)
+          .collectionScan(collectionScan).inMemorySort(inMemorySort).lastRequestId(lastRequestId)
+          .lastExplainedAt(lastExplainedAt == 0 ? null : new Date(lastExplainedAt)).build();
+    }
+  }
+
+}
@@ -1,35 +1,91 @@
 package com.sixsprints.core.generic.update;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+import com.mongodb.bulk.BulkWriteError;
 import com.mongodb.client.result.UpdateResult;
+import com.sixsprints.core.constants.ExceptionConstants;
 import com.sixsprints.core.domain.AbstractMongoEntity;
+import com.sixsprints.core.dto.BulkResult;
+import com.sixsprints.core.dto.BulkRowResult;
+import com.sixsprints.core.dto.FieldOperation;
+import com.sixsprints.core.enums.FieldOperator;
+import com.sixsprints.core.enums.UpdateAction;
+import com.sixsprints.core.exception.EntityConflictException;
 import com.sixsprints.core.exception.EntityInvalidException;
 import com.sixsprints.core.exception.EntityNotFoundException;
 import com.sixsprints.core.generic.create.AbstractCreateService;
 import com.sixsprints.core.utils.ApplicationContext;
 import com.sixsprints.core.utils.BeanWrapperUtil;
+import com.sixsprints.core.utils.DocumentDiffUtil;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public abstract class AbstractUpdateService<T extends AbstractMongoEntity>
     extends AbstractCreateService<T> implements GenericUpdateService<T> {
 
+  private static final Set<String> DIFF_IGNORED_FIELDS = Set.of("_id",
+      AbstractMongoEntity.Fields.dateModified, AbstractMongoEntity.Fields.lastModifiedBy,
+      AbstractMongoEntity.Fields.version, AbstractMongoEntity.Fields.deleted,
+      AbstractMongoEntity.Fields.dateDeleted);
+
+  /**
+   * Fields that field operations may not touch: the identity, audit, version and soft delete
+   * fields are only written by the service itself.
+   */
+  private static final Set<String> RESERVED_FIELDS = Stream
+      .concat(DIFF_IGNORED_FIELDS.stream(),
+          Stream.of(AbstractMongoEntity.Fields.id, AbstractMongoEntity.Fields.dateCreated,
+              AbstractMongoEntity.Fields.createdBy))
+      .collect(Collectors.toUnmodifiableSet());
+
+  @Value("${update.patch.atomic:false}")
+  private boolean atomicPatch;
+
+  @Value("${update.diff.enabled:false}")
+  private boolean diffUpdate;
+
+  @Value("${update.optimistic.locking:false}")
+  private boolean optimisticLocking;
+
+  @Value("${update.optimistic.locking.retries:0}")
+  private int optimisticLockRetries;
+
   @Override
   public T updateOneById(String id, T entity)
       throws EntityNotFoundException, EntityInvalidException {
-    T entityFromDb = findOneById(id).orElseThrow(() -> notFoundException(id));
+    T entityFromDb =
+        findUpdateBase(AbstractMongoEntity.Fields.id, id).orElseThrow(() -> notFoundException(id));
     return update(entity, entityFromDb);
   }
 
   @Override
   public T updateOneBySlug(String slug, T entity)
       throws EntityNotFoundException, EntityInvalidException {
-    T entityFromDb = findOneBySlug(slug).orElseThrow(() -> notFoundException(slug));
+    T entityFromDb = findUpdateBase(AbstractMongoEntity.Fields.slug, slug)
+        .orElseThrow(() -> notFoundException(slug));
     return update(entity, entityFromDb);
   }
 
@@ -50,9 +106,13 @@ public abstract class AbstractUpdateService<T extends AbstractMongoEntity>
   @Override
   public T patchUpdateOneById(String id, T entity, List<String> propsChanged)
       throws EntityNotFoundException, EntityInvalidException {
+    Criteria criteria = Criteria.where(AbstractMongoEntity.Fields.id).is(id);
+    if (atomicPatch()) {
+      return atomicPatchUpdateOne(criteria, entity, propsChanged)
+          .orElseThrow(() -> notFoundException(id));
+    }
     T entityFromDb = findOneById(id).orElseThrow(() -> notFoundException(id));
-    patchUpdateOne(Criteria.where(AbstractMongoEntity.Fields.id).is(id), entity, entityFromDb,
-        propsChanged);
+    patchUpdateOne(criteria, entity, entityFromDb, propsChanged);
     return entity;
   }
 
@@ -66,9 +126,13 @@ public abstract class AbstractUpdateService<T extends AbstractMongoEntity>
   @Override
   public T patchUpdateOneBySlug(String slug, T entity, List<String> propsChanged)
       throws EntityNotFoundException, EntityInvalidException {
+    Criteria criteria = Criteria.where(AbstractMongoEntity.Fields.slug).is(slug);
+    if (atomicPatch()) {
+      return atomicPatchUpdateOne(criteria, entity, propsChanged)
+          .orElseThrow(() -> notFoundException(slug));
+    }
     T entityFromDb = findOneBySlug(slug).orElseThrow(() -> notFoundException(slug));
-    patchUpdateOne(Criteria.where(AbstractMongoEntity.Fields.slug).is(slug), entity, entityFromDb,
-        propsChanged);
+    patchUpdateOne(criteria, entity, entityFromDb, propsChanged);
     return entity;
   }
 
@@ -82,6 +146,10 @@ public abstract class AbstractUpdateService<T extends AbstractMongoEntity>
   @Override
   public T patchUpdateOneByCriteria(Criteria criteria, T entity, List<String> propsChanged)
       throws EntityNotFoundException, EntityInvalidException {
+    if (atomicPatch()) {
+      return atomicPatchUpdateOne(criteria, entity, propsChanged)
+          .orElseThrow(() -> notFoundExceptionCriteria());
+    }
     T entityFromDb = findOneByCriteria(criteria).orElseThrow(() -> notFoundExceptionCriteria());
     patchUpdateOne(criteria, entity, entityFromDb, propsChanged);
     return entity;
@@ -98,8 +166,107 @@ public abstract class AbstractUpdateService<T extends AbstractMongoEntity>
     assertValid(entity != null, metaData().getClassType().getSimpleName(), entity);
     assertValid(propsChanged != null, "propsChanged", propsChanged);
     Update update = preparePatchUpdate(entity, propsChanged);
-    return mongo.updateMulti(Query.query(criteria), update, metaData().getClassType())
+    long matched = mongo
+        .updateMulti(Query.query(liveCriteria(criteria)), update, metaData().getClassType())
+        .getMatchedCount();
+    evictAllFromCache();
+    return matched;
+  }
+
+  @Override
+  public T patchUpdateOneById(String id, List<FieldOperation> operations)
+      throws EntityNotFoundException {
+    return patchOneWithOperations(Criteria.where(AbstractMongoEntity.Fields.id).is(id), operations)
+        .orElseThrow(() -> notFoundException(id));
+  }
+
+  @Override
+  public T patchUpdateOneBySlug(String slug, List<FieldOperation> operations)
+      throws EntityNotFoundException {
+    return patchOneWithOperations(Criteria.where(AbstractMongoEntity.Fields.slug).is(slug),
+        operations).orElseThrow(() -> notFoundException(slug));
+  }
+
+  @Override
+  public T patchUpdateOneByCriteria(Criteria criteria, List<FieldOperation> operations)
+      throws EntityNotFoundException {
+    return patchOneWithOperations(criteria, operations)
+        .orElseThrow(() -> notFoundExceptionCriteria());
+  }
+
+  @Override
+  public long bulkPatchUpdateByCriteria(Criteria criteria, List<FieldOperation> operations) {
+    assertValid(criteria != null, "criteria", criteria);
+    Update update = compileOperations(operations);
+    long matched = mongo
+        .updateMulti(Query.query(liveCriteria(criteria)), update, metaData().getClassType())
         .getMatchedCount();
+    evictAllFromCache();
+    return matched;
+  }
+
+  private Optional<T> patchOneWithOperations(Criteria criteria, List<FieldOperation> operations) {
+    assertValid(criteria != null, "criteria", criteria);
+    Update update = compileOperations(operations);
+    T updated = mongo.findAndModify(Query.query(liveCriteria(criteria)), update,
+        FindAndModifyOptions.options().returnNew(true), metaData().getClassType());
+    evictFromCache(updated);
+    return Optional.ofNullable(updated);
+  }
+
+  /**
+   * Compiles field operations into one update, adding the modification audit fields. Operations on
+   * the identity, audit, version or soft delete fields are rejected.
+   */
+  protected Update compileOperations(List<FieldOperation> operations) {
+    assertValid(!CollectionUtils.isEmpty(operations), "operations", operations);
+    Update update = new Update();
+    for (FieldOperation operation : operations) {
+      String field = operation == null ? null : operation.getField();
+      assertValid(StringUtils.hasText(field) && !reserved(field), "field", field);
+      FieldOperator operator = operation.getOperator();
+      Object value = operation.getValue();
+      assertValid(operator != null, "operator", operator);
+      assertValid(operator == FieldOperator.UNSET || value != null, field, value);
+      switch (operator) {
+        case SET:
+          update.set(field, value);
+          break;
+        case UNSET:
+          update.unset(field);
+          break;
+        case INC:
+          assertValid(value instanceof Number, field, value);
+          update.inc(field, (Number) value);
+          break;
+        case PUSH:
+          update.push(field, value);
+          break;
+        case ADD_TO_SET:
+          update.addToSet(field, value);
+          break;
+        case PULL:
+          update.pull(field, value);
+          break;
+        case MIN:
+          update.min(field, value);
+          break;
+        case MAX:
+          update.max(field, value);
+          break;
+      }
+    }
+    AbstractMongoEntity currentUser = ApplicationContext.getCurrentUser();
+    update.set(AbstractMongoEntity.Fields.dateModified, System.currentTimeMillis())
+        .set(AbstractMongoEntity.Fields.lastModifiedBy,
+            currentUser == null ? null : userAuditField(currentUser));
+    incrementVersion(update);
+    return update;
+  }
+
+  private static boolean reserved(String field) {
+    int dot = field.indexOf('.');
+    return RESERVED_FIELDS.contains(dot < 0 ? field : field.substring(0, dot));
   }
 
   private UpdateResult patchUpdateOne(Criteria criteria, T entity, T entityFromDb,
@@ -107,10 +274,59 @@ public abstract class AbstractUpdateService<T extends AbstractMongoEntity>
     assertValid(criteria != null, "criteria", criteria);
     assertValid(entity != null, metaData().getClassType().getSimpleName(), entity);
     assertValid(propsChanged != null, "propsChanged", propsChanged);
+    Criteria live = liveCriteria(criteria);
+    Long expectedVersion = entity.getVersion();
+    for (int attempt = 0;; attempt++) {
+      Update update = preparePatchUpdate(entity, propsChanged);
+      BeanWrapperUtil.copyProperties(entity, entityFromDb, propsChanged);
+      preUpdateCheck(entity);
+      if (!optimisticLocking()) {
+        UpdateResult result =
+            mongo.updateFirst(Query.query(live), update, metaData().getClassType());
+        evictFromCache(entityFromDb);
+        return result;
+      }
+      Long version = expectedVersion != null ? expectedVersion : entityFromDb.getVersion();
+      UpdateResult result = mongo.updateFirst(Query.query(withVersion(live, version)), update,
+          metaData().getClassType());
+      evictFromCache(entityFromDb);
+      if (result.getMatchedCount() > 0) {
+        return result;
+      }
+      entityFromDb = reloadForRetry(conflictException(entityFromDb.getId(), version),
+          expectedVersion, attempt, entityFromDb);
+    }
+  }
+
+  /**
+   * Validates only the patched properties and applies them with one {@code findAndModify}, so the
+   * document is neither loaded first nor exposed to a concurrent write in between.
+   */
+  private Optional<T> atomicPatchUpdateOne(Criteria criteria, T entity, List<String> propsChanged)
+      throws EntityInvalidException {
+    assertValid(criteria != null, "criteria", criteria);
+    assertValid(entity != null, metaData().getClassType().getSimpleName(), entity);
+    assertValid(propsChanged != null, "propsChanged", propsChanged);
+    List<String> errors = checkPropertyValidity(entity, propsChanged);
+    if (!CollectionUtils.isEmpty(errors)) {
+      throw validationException(errors);
+    }
+    List<String> updateErrors = checkValidityPreUpdate(entity);
+    if (!CollectionUtils.isEmpty(updateErrors)) {
+      throw validationException(updateErrors);
+    }
+    Long expectedVersion = optimisticLocking() ? entity.getVersion() : null;
     Update update = preparePatchUpdate(entity, propsChanged);
-    BeanWrapperUtil.copyProperties(entity, entityFromDb, propsChanged);
-    preUpdateCheck(entity);
-    return mongo.updateFirst(Query.query(criteria), update, metaData().getClassType());
+    Criteria live = liveCriteria(criteria);
+    Criteria versioned = expectedVersion == null ? live : withVersion(live, expectedVersion);
+    T updated = mongo.findAndModify(Query.query(versioned), update,
+        FindAndModifyOptions.options().returnNew(true), metaData().getClassType());
+    if (updated == null && expectedVersion != null
+        && mongo.exists(Query.query(live), metaData().getClassType())) {
+      throw conflictException(entity.getId(), expectedVersion);
+    }
+    evictFromCache(updated);
+    return Optional.ofNullable(updated);
   }
 
   private Update preparePatchUpdate(T entity, List<String> propsChanged) {
@@ -124,18 +340,18 @@ public abstract class AbstractUpdateService<T extends AbstractMongoEntity>
     for (String prop : propsChangedWithAudit) {
       update.set(prop, BeanWrapperUtil.getValue(entity, prop));
     }
+    incrementVersion(update);
     return update;
   }
 
-  protected String userAuditField(AbstractMongoEntity currentUser) {
-    return currentUser.getSlug();
-  }
-
   @Override
   public T upsertOne(T entity) throws EntityInvalidException {
     assertValid(entity != null, metaData().getClassType().getSimpleName(), entity);
     enhanceEntity(entity);
     T entityFromDb = findDuplicate(entity);
+    if (entityFromDb != null && isTombstone(entityFromDb)) {
+      throw deletedException(entityFromDb);
+    }
     if (entityFromDb != null) {
       return update(entity, entityFromDb);
     }
@@ -161,6 +377,313 @@ public abstract class AbstractUpdateService<T extends AbstractMongoEntity>
     return entities;
   }
 
+  @Override
+  public BulkResult<T> bulkUpsertBatched(List<T> list) {
+    return bulkUpsertBatched(list, null);
+  }
+
+  /**
+   * Same as {@link #bulkUpsertBatched(List)}, except that a row matching a stored document is
+   * merged into it instead of replacing it: only the row's {@code propsChanged} are copied onto the
+   * stored document, the merged document goes through {@code preUpdate} and validation, and only
+   * those properties are written, with a {@code $set}. Rows without a match are inserted as they
+   * are.
+   *
+   * @param list         the entities to upsert (must not be null or contain null elements)
+   * @param propsChanged the properties set on each row, in the order of {@code list}; null
+   *                     replaces matched documents like {@link #bulkUpsertBatched(List)}
+   */
+  protected BulkResult<T> bulkUpsertBatched(List<T> list, List<List<String>> propsChanged) {
+    assertValid(list != null, metaData().getClassType().getSimpleName(), list);
+    assertValid(list.stream().noneMatch(Objects::isNull), metaData().getClassType().getSimpleName(),
+        list);
+    assertValid(propsChanged == null || propsChanged.size() == list.size(), "propsChanged",
+        propsChanged);
+    BulkRowResult[] rows = new BulkRowResult[list.size()];
+    List<T> written = new ArrayList<>();
+    int chunkSize = Math.max(1, bulkChunkSize());
+    for (int from = 0; from < list.size(); from += chunkSize) {
+      int to = Math.min(list.size(), from + chunkSize);
+      written.addAll(upsertChunk(list.subList(from, to),
+          propsChanged == null ? null : propsChanged.subList(from, to), from, rows));
+    }
+    return BulkResult.<T>builder().written(written).rows(new ArrayList<>(Arrays.asList(rows)))
+        .build();
+  }
+
+  private List<T> upsertChunk(List<T> chunk, List<List<String>> propsChanged, int offset,
+      BulkRowResult[] rows) {
+    List<String> enhanceErrors = new ArrayList<>();
+    for (T entity : chunk) {
+      enhanceErrors.add(enhance(entity));
+    }
+    List<T> duplicates = findDuplicates(chunk);
+    Map<Integer, Integer> superseded = supersededRows(chunk, duplicates, enhanceErrors);
+
+    List<T> inserts = new ArrayList<>();
+    List<Integer> insertRows = new ArrayList<>();
+    List<T> replacements = new ArrayList<>();
+    List<List<String>> replacementProps = new ArrayList<>();
+    List<T> replaced = new ArrayList<>();
+    List<Integer> replacementRows = new ArrayList<>();
+    for (int i = 0; i < chunk.size(); i++) {
+      T entity = chunk.get(i);
+      T entityFromDb = duplicates.get(i);
+      int row = offset + i;
+      if (enhanceErrors.get(i) != null) {
+        rows[row] = invalidRow(row, entity, List.of(enhanceErrors.get(i)));
+      } else if (superseded.containsKey(i)) {
+        rows[row] = invalidRow(row, entity,
+            List.of(localisedMessage(ExceptionConstants.ENTITY_SUPERSEDED_IN_BATCH,
+                List.of(offset + superseded.get(i), metaData().getClassType().getSimpleName()))));
+      } else if (entityFromDb != null && isTombstone(entityFromDb)) {
+        EntityInvalidException ex = deletedException(entityFromDb);
+        rows[row] = invalidRow(row, entity,
+            List.of(localisedMessage(ex.getError(), ex.getArguments())));
+      } else if (entityFromDb == null) {
+        List<String> errors = validateInsert(entity);
+        if (errors.isEmpty()) {
+          inserts.add(entity);
+          insertRows.add(row);
+        } else {
+          rows[row] = invalidRow(row, entity, errors);
+        }
+      } else {
+        List<String> props = propsChanged == null ? null : propsChanged.get(i);
+        if (props != null) {
+          entity = merge(entity, entityFromDb, props);
+        }
+        List<String> errors = prepareReplacement(entity, entityFromDb);
+        if (!errors.isEmpty()) {
+          rows[row] = invalidRow(row, entity, errors);
+        } else if (unchanged(entity, entityFromDb)) {
+          rows[row] = row(row, UpdateAction.IGNORE, entityFromDb);
+        } else {
+          replacements.add(entity);
+          replacementProps.add(props);
+          replaced.add(entityFromDb);
+          replacementRows.add(row);
+        }
+      }
+    }
+    if (inserts.isEmpty() && replacements.isEmpty()) {
+      return List.of();
+    }
+
+    generateSlugIfRequired(inserts);
+    setCreateAuditFields(inserts);
+    setUpdateAuditFields(replacements);
+    BulkOperations bulk = mongo.bulkOps(BulkMode.UNORDERED, metaData().getClassType());
+    if (!inserts.isEmpty()) {
+      bulk.insert(inserts);
+    }
+    for (int i = 0; i < replacements.size(); i++) {
+      T entity = replacements.get(i);
+      Criteria criteria = idCriteria(entity);
+      if (optimisticLocking()) {
+        criteria = withVersion(criteria, lockVersion(entity, entity, null));
+      }
+      if (replacementProps.get(i) == null) {
+        bulk.replaceOne(Query.query(criteria), entity);
+      } else {
+        bulk.updateOne(Query.query(criteria), mergeUpdate(entity, replacementProps.get(i)));
+      }
+    }
+    List<String> writeErrors =
+        new ArrayList<>(Collections.nCopies(inserts.size() + replacements.size(), null));
+    int matched;
+    try {
+      matched = bulk.execute().getMatchedCount();
+    } catch (BulkOperationException ex) {
+      matched = ex.getResult().getMatchedCount();
+      for (BulkWriteError error : ex.getErrors()) {
+        writeErrors.set(error.getIndex(), error.getMessage());
+      }
+    }
+    if (optimisticLocking()) {
+      markConflicts(replacements, inserts.size(), matched, writeErrors);
+    }
+
+    List<T> written = new ArrayList<>();
+    for (int i = 0; i < inserts.size(); i++) {
+      T entity = inserts.get(i);
+      int row = insertRows.get(i);
+      if (writeErrors.get(i) != null) {
+        rows[row] = invalidRow(row, entity, List.of(writeErrors.get(i)));
+        continue;
+      }
+      postInsert(entity);
+      written.add(entity);
+      rows[row] = row(row, UpdateAction.CREATE, entity);
+    }
+    for (int i = 0; i < replacements.size(); i++) {
+      T entity = replacements.get(i);
+      int row = replacementRows.get(i);
+      String error = writeErrors.get(inserts.size() + i);
+      evictFromCache(replaced.get(i));
+      if (error != null) {
+        rows[row] = invalidRow(row, entity, List.of(error));
+        continue;
+      }
+      postUpdate(entity);
+      written.add(entity);
+      rows[row] = row(row, UpdateAction.UPDATE, entity);
+    }
+    return written;
+  }
+
+  /**
+   * Rows of the chunk that a later row targets too, mapped to that later row. Rows target the same
+   * document when they resolved to the same stored one or share the values of a duplicate key.
+   * Sent together, they would both be inserted or both replace the same document, so only the last
+   * one is written and the others are reported as invalid.
+   */
+  private Map<Integer, Integer> supersededRows(List<T> chunk, List<T> duplicates,
+      List<String> enhanceErrors) {
+    List<List<String>> keys = duplicateKeys();
+    Map<List<Object>, Integer> claimed = new HashMap<>();
+    Map<Integer, Integer> superseded = new HashMap<>();
+    for (int i = chunk.size() - 1; i >= 0; i--) {
+      if (enhanceErrors.get(i) != null) {
+        continue;
+      }
+      List<List<Object>> identities = new ArrayList<>();
+      if (duplicates.get(i) != null) {
+        identities.add(List.of(AbstractMongoEntity.Fields.id, duplicates.get(i).getId()));
+      }
+      for (List<String> key : keys) {
+        List<Object> values = keyValues(chunk.get(i), key);
+        if (values != null) {
+          identities.add(List.of(key, values));
+        }
+      }
+      Integer winner = null;
+      for (List<Object> identity : identities) {
+        winner = winner != null ? winner : claimed.get(identity);
+      }
+      if (winner != null) {
+        superseded.put(i, winner);
+      }
+      for (List<Object> identity : identities) {
+        claimed.putIfAbsent(identity, winner != null ? winner : i);
+      }
+    }
+    return superseded;
+  }
+
+  /**
+   * An unordered bulk write only reports how many replacements matched, so when some did not, the
+   * stored versions tell which rows lost the race.
+   */
+  private void markConflicts(List<T> replacements, int offset, int matched,
+      List<String> writeErrors) {
+    long attempted = 0;
+    for (int i = 0; i < replacements.size(); i++) {
+      if (writeErrors.get(offset + i) == null) {
+        attempted++;
+      }
+    }
+    if (matched >= attempted) {
+      return;
+    }
+    Query query = Query.query(Criteria.where(AbstractMongoEntity.Fields.id)
+        .in(replacements.stream().map(AbstractMongoEntity::getId).collect(Collectors.toList())));
+    query.fields().include(AbstractMongoEntity.Fields.version);
+    Map<String, Long> stored = new HashMap<>();
+    mongo.find(query, metaData().getClassType())
+        .forEach(entity -> stored.put(entity.getId(), entity.getVersion()));
+    for (int i = 0; i < replacements.size(); i++) {
+      T entity = replacements.get(i);
+      if (writeErrors.get(offset + i) == null
+          && !Objects.equals(stored.get(entity.getId()), entity.getVersion())) {
+        EntityConflictException ex = conflictException(entity.getId(), entity.getVersion() - 1);
+        writeErrors.set(offset + i, localisedMessage(ex.getError(), ex.getArguments()));
+      }
+    }
+  }
+
+  private String enhance(T entity) {
+    try {
+      enhanceEntity(entity);
+      return null;
+    } catch (RuntimeException ex) {
+      return String.valueOf(ex.getMessage());
+    }
+  }
+
+  /**
+   * Points the row at the existing document (id, slug, sequence and creation audit fields) so it
+   * replaces it, then runs the update hooks and validation.
+   */
+  private List<String> prepareReplacement(T entity, T entityFromDb) {
+    try {
+      Long sequence = entity.getSequence();
+      entity.copyEntityFrom(entityFromDb);
+      entity.setSequence(sequence == null ? entityFromDb.getSequence() : sequence);
+      preUpdate(entityFromDb, entity);
+      return Stream.concat(checkValidity(entity).stream(), checkValidityPreUpdate(entity).stream())
+          .map(error -> localisedMessage(error, null)).collect(Collectors.toList());
+    } catch (RuntimeException ex) {
+      return List.of(String.valueOf(ex.getMessage()));
+    }
+  }
+
+  /**
+   * A copy of the stored document with the row's properties set on it.
+   */
+  private T merge(T entity, T entityFromDb, List<String> props) {
+    T merged = mongo.getConverter().read(metaData().getClassType(), toDocument(entityFromDb));
+    BeanWrapper source = PropertyAccessorFactory.forBeanPropertyAccess(entity);
+    BeanWrapper target = PropertyAccessorFactory.forBeanPropertyAccess(merged);
+    target.setAutoGrowNestedPaths(true);
+    for (String prop : props) {
+      target.setPropertyValue(prop, source.getPropertyValue(prop));
+    }
+    return merged;
+  }
+
+  /**
+   * {@code $set} of the merged properties and the update audit fields. The identity and audit
+   * fields of the stored document are never overwritten.
+   */
+  private Update mergeUpdate(T entity, List<String> props) {
+    Update update = new Update();
+    for (String prop : props) {
+      if (!reserved(prop) && !AbstractMongoEntity.Fields.slug.equals(prop)) {
+        update.set(prop, BeanWrapperUtil.getValue(entity, prop));
+      }
+    }
+    update.set(AbstractMongoEntity.Fields.dateModified, entity.getDateModified());
+    update.set(AbstractMongoEntity.Fields.lastModifiedBy, entity.getLastModifiedBy());
+    incrementVersion(update);
+    return update;
+  }
+
+  private boolean unchanged(T entity, T entityFromDb) {
+    Document now = toDocument(entityFromDb);
+    Document toBe = toDocument(entity);
+    for (Document document : List.of(now, toBe)) {
+      document.remove(AbstractMongoEntity.Fields.dateModified);
+      document.remove(AbstractMongoEntity.Fields.lastModifiedBy);
+    }
+    return now.equals(toBe);
+  }
+
+  private void setUpdateAuditFields(List<T> entities) {
+    long now = System.currentTimeMillis();
+    AbstractMongoEntity currentUser = ApplicationContext.getCurrentUser();
+    String auditor = currentUser == null ? null : userAuditField(currentUser);
+    for (T entity : entities) {
+      entity.setDateModified(now);
+      entity.setLastModifiedBy(auditor);
+    }
+  }
+
+  private BulkRowResult row(int index, UpdateAction action, T entity) {
+    return BulkRowResult.builder().index(index).action(action).id(entity.getId())
+        .slug(entity.getSlug()).errors(List.of()).build();
+  }
+
   private void preUpdateCheck(T entity) throws EntityInvalidException {
     List<String> errors = checkValidity(entity);
     if (!CollectionUtils.isEmpty(errors)) {
@@ -176,14 +699,196 @@ public abstract class AbstractUpdateService<T extends AbstractMongoEntity>
     return new ArrayList<>();
   }
 
+  /**
+   * Whether the patch methods validate only the patched properties and apply them with a single
+   * {@code findAndModify}, returning the updated document, instead of loading and validating the
+   * whole entity first. From {@code update.patch.atomic}.
+   */
+  protected boolean atomicPatch() {
+    return atomicPatch;
+  }
+
+  /**
+   * Whether full updates write only the paths that differ from the stored document with
+   * {@code $set}/{@code $unset} instead of replacing it, skipping the write when nothing changed.
+   * From {@code update.diff.enabled}.
+   */
+  protected boolean diffUpdate() {
+    return diffUpdate;
+  }
+
+  /**
+   * Whether updates are conditional on the {@code version} of the document and increment it. A
+   * full or patch update checks the version the caller passed on the entity, or else the version of
+   * the document it loaded, and throws {@link EntityConflictException} when the document changed in
+   * between. From {@code update.optimistic.locking}.
+   */
+  protected boolean optimisticLocking() {
+    return optimisticLocking;
+  }
+
+  /**
+   * How many times an update that did not carry a caller-supplied version re-reads the document and
+   * tries again after a conflict. From {@code update.optimistic.locking.retries}.
+   */
+  protected int optimisticLockRetries() {
+    return optimisticLockRetries;
+  }
+
+  /**
+   * The stored document a full update starts from. A diff update reads it from the collection, not
+   * the cache, since a field another writer changed and the caller sets back to a stale cached
+   * value would otherwise produce no diff and be dropped.
+   */
+  private Optional<T> findUpdateBase(String field, String key) {
+    if (!diffUpdate()) {
+      return AbstractMongoEntity.Fields.id.equals(field) ? findOneById(key) : findOneBySlug(key);
+    }
+    if (!StringUtils.hasText(key)) {
+      return Optional.empty();
+    }
+    return findLive(field, key);
+  }
+
   private T update(T entity, T entityFromDb) throws EntityInvalidException {
     assertValid(entity != null, metaData().getClassType().getSimpleName(), entity);
-    enhanceEntity(entity);
-    preUpdate(entityFromDb, entity);
-    preUpdateCheck(entity);
-    repository().save(entity);
+    Long expectedVersion = entity.getVersion();
+    for (int attempt = 0;; attempt++) {
+      enhanceEntity(entity);
+      preUpdate(entityFromDb, entity);
+      preUpdateCheck(entity);
+      try {
+        if (!write(entity, entityFromDb, expectedVersion)) {
+          return entity;
+        }
+        break;
+      } catch (EntityConflictException ex) {
+        entityFromDb = reloadForRetry(ex, expectedVersion, attempt, entityFromDb);
+      }
+    }
+    evictFromCache(entityFromDb);
+    evictFromCache(entity);
     postUpdate(entity);
     return entity;
   }
 
+  /**
+   * Writes the entity over the stored document. Returns false, without writing, when a diff update
+   * finds nothing to change.
+   */
+  private boolean write(T entity, T entityFromDb, Long expectedVersion) {
+    if (diffUpdate()) {
+      return applyDiff(entity, entityFromDb, expectedVersion);
+    }
+    if (!optimisticLocking()) {
+      repository().save(entity);
+      return true;
+    }
+    keepStoredIdentity(entity, entityFromDb);
+    Long version = lockVersion(entity, entityFromDb, expectedVersion);
+    setUpdateAuditFields(List.of(entity));
+    UpdateResult result = mongo.replace(Query.query(withVersion(idCriteria(entity), version)),
+        entity);
+    if (result.getMatchedCount() == 0) {
+      throw conflictException(entity.getId(), version);
+    }
+    return true;
+  }
+
+  /**
+   * Writes the difference between the entity and the stored document, keeping the stored identity
+   * and creation audit fields. Returns false, without writing, when nothing changed.
+   */
+  private boolean applyDiff(T entity, T entityFromDb, Long expectedVersion) {
+    keepStoredIdentity(entity, entityFromDb);
+    Update update =
+        DocumentDiffUtil.diff(toDocument(entityFromDb), toDocument(entity), DIFF_IGNORED_FIELDS);
+    if (DocumentDiffUtil.isEmpty(update)) {
+      entity.setVersion(entityFromDb.getVersion());
+      return false;
+    }
+    setUpdateAuditFields(List.of(entity));
+    update.set(AbstractMongoEntity.Fields.dateModified, entity.getDateModified())
+        .set(AbstractMongoEntity.Fields.lastModifiedBy, entity.getLastModifiedBy());
+    Criteria criteria = idCriteria(entity);
+    if (optimisticLocking()) {
+      Long version = lockVersion(entity, entityFromDb, expectedVersion);
+      criteria = withVersion(criteria, version);
+      incrementVersion(update);
+      if (mongo.updateFirst(Query.query(criteria), update, metaData().getClassType())
+          .getMatchedCount() == 0) {
+        throw conflictException(entity.getId(), version);
+      }
+      return true;
+    }
+    mongo.updateFirst(Query.query(criteria), update, metaData().getClassType());
+    return true;
+  }
+
+  private void keepStoredIdentity(T entity, T entityFromDb) {
+    entity.setId(entityFromDb.getId());
+    entity.setDateCreated(entityFromDb.getDateCreated());
+    entity.setCreatedBy(entityFromDb.getCreatedBy());
+    entity.setDeleted(entityFromDb.getDeleted());
+    entity.setDateDeleted(entityFromDb.getDateDeleted());
+    if (entity.getSlug() == null) {
+      entity.setSlug(entityFromDb.getSlug());
+    }
+    if (entity.getSequence() == null) {
+      entity.setSequence(entityFromDb.getSequence());
+    }
+  }
+
+  /**
+   * Returns the version the write is conditional on and sets the entity to the one after it.
+   */
+  private Long lockVersion(T entity, T entityFromDb, Long expectedVersion) {
+    Long version = expectedVersion != null ? expectedVersion : entityFromDb.getVersion();
+    entity.setVersion(version == null ? 1L : version + 1);
+    return version;
+  }
+
+  /**
+   * Re-reads the document for another attempt after a conflict, or rethrows when the caller
+   * supplied the version (its copy is stale) or the retries are used up.
+   */
+  private T reloadForRetry(EntityConflictException ex, Long expectedVersion, int attempt,
+      T entityFromDb) {
+    evictFromCache(entityFromDb);
+    if (expectedVersion != null || attempt >= optimisticLockRetries()) {
+      throw ex;
+    }
+    T reloaded = mongo.findById(entityFromDb.getId(), metaData().getClassType());
+    if (reloaded == null) {
+      throw ex;
+    }
+    log.debug("Retrying update of {} {} after a version conflict",
+        metaData().getClassType().getSimpleName(), entityFromDb.getId());
+    return reloaded;
+  }
+
+  private Criteria idCriteria(T entity) {
+    return Criteria.where(AbstractMongoEntity.Fields.id).is(entity.getId());
+  }
+
+  /**
+   * A missing version matches {@code null}, so documents written before locking was enabled can be
+   * updated too.
+   */
+  private Criteria withVersion(Criteria criteria, Long version) {
+    return new Criteria().andOperator(criteria,
+        Criteria.where(AbstractMongoEntity.Fields.version).is(version));
+  }
+
+  private void incrementVersion(Update update) {
+    if (optimisticLocking()) {
+      update.inc(AbstractMongoEntity.Fields.version, 1);
+    }
+  }
+
+  protected EntityConflictException conflictException(String id, Long version) {
+    return EntityConflictException.childBuilder()
+        .arg(metaData().getClassType().getSimpleName()).arg(id).arg(version).build();
+  }
+
 }
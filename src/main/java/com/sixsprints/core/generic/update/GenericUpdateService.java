@@ -1,6 +1,8 @@
 package com.sixsprints.core.generic.update;
 
 import java.util.List;
+import com.sixsprints.core.dto.BulkResult;
+import com.sixsprints.core.dto.FieldOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import com.sixsprints.core.domain.AbstractMongoEntity;
 import com.sixsprints.core.exception.EntityInvalidException;
@@ -35,6 +37,8 @@ import jakarta.annotation.Nonnull;
  * <ul>
  *   <li>Use full update methods when you want to replace all entity fields</li>
  *   <li>Use patch update methods when you want to modify only specific fields</li>
+ *   <li>Set {@code update.patch.atomic=true} to validate only the patched fields and apply them
+ *       with a single {@code findAndModify}; patch methods then return the updated document</li>
  *   <li>Use upsert methods when you're unsure if the entity exists</li>
  *   <li>All methods validate entities before updating</li>
  *   <li>Update operations maintain referential integrity and audit trails</li>
@@ -517,6 +521,78 @@ public interface GenericUpdateService<T extends AbstractMongoEntity> {
   long bulkPatchUpdateByCriteria(@Nonnull Criteria criteria, @Nonnull T entity,
       @Nonnull List<String> propsChanged);
 
+  /**
+   * Applies field operations (set, unset, increment, array push/add/pull, min/max) to a single
+   * entity by its unique identifier in one round trip.
+   * 
+   * <p>The operations are compiled into one MongoDB update together with the modification audit
+   * fields and applied with {@code findAndModify}, so the document is never read first. Counters
+   * and list changes made concurrently by other callers are therefore not lost.</p>
+   * 
+   * <p><strong>Behavior:</strong></p>
+   * <ul>
+   *   <li>Operations on different fields are applied together; two operations on the same field
+   *       (or on a field and its parent) are rejected by MongoDB</li>
+   *   <li>No bean validation or update hooks run, as the resulting entity is not known up
+   *       front</li>
+   *   <li>The id cannot be changed</li>
+   * </ul>
+   * 
+   * <p><strong>Example:</strong></p>
+   * <pre>{@code
+   * Order order = orderService.patchUpdateOneById(id, List.of(
+   *     FieldOperation.of("quantity", FieldOperator.INC, 2),
+   *     FieldOperation.of("tags", FieldOperator.ADD_TO_SET, "gift")));
+   * }</pre>
+   * 
+   * @param id the unique identifier of the entity to update (must not be null)
+   * @param operations the operations to apply (must not be null or empty)
+   * @return the entity after the update
+   * @throws EntityNotFoundException if no entity exists with the specified ID
+   * 
+   * @see #patchUpdateOneById(String, Object, List) for patching with values read from an entity
+   */
+  T patchUpdateOneById(@Nonnull String id, @Nonnull List<FieldOperation> operations)
+      throws EntityNotFoundException;
+
+  /**
+   * Applies field operations to a single entity by its slug in one round trip.
+   * 
+   * @param slug the slug value of the entity to update (must not be null)
+   * @param operations the operations to apply (must not be null or empty)
+   * @return the entity after the update
+   * @throws EntityNotFoundException if no entity exists with the specified slug
+   * 
+   * @see #patchUpdateOneById(String, List) for the operation semantics
+   */
+  T patchUpdateOneBySlug(@Nonnull String slug, @Nonnull List<FieldOperation> operations)
+      throws EntityNotFoundException;
+
+  /**
+   * Applies field operations to the first entity matching the criteria in one round trip.
+   * 
+   * @param criteria the MongoDB criteria to match against (must not be null)
+   * @param operations the operations to apply (must not be null or empty)
+   * @return the entity after the update
+   * @throws EntityNotFoundException if no entity matches the criteria
+   * 
+   * @see #patchUpdateOneById(String, List) for the operation semantics
+   */
+  T patchUpdateOneByCriteria(@Nonnull Criteria criteria, @Nonnull List<FieldOperation> operations)
+      throws EntityNotFoundException;
+
+  /**
+   * Applies field operations to every entity matching the criteria with one {@code updateMany}.
+   * 
+   * @param criteria the MongoDB criteria to match against (must not be null)
+   * @param operations the operations to apply (must not be null or empty)
+   * @return the number of entities that matched the criteria
+   * 
+   * @see #patchUpdateOneById(String, List) for the operation semantics
+   */
+  long bulkPatchUpdateByCriteria(@Nonnull Criteria criteria,
+      @Nonnull List<FieldOperation> operations);
+
   /**
    * Performs an upsert operation on a single entity (insert if not exists, update if exists).
    * 
@@ -611,4 +687,42 @@ public interface GenericUpdateService<T extends AbstractMongoEntity> {
    */
   List<T> bulkUpsert(@Nonnull List<T> list) throws EntityInvalidException;
 
+  /**
+   * Upserts many entities in batches, reporting the outcome of every row instead of failing the
+   * whole call.
+   * 
+   * <p>The entities are processed in chunks of {@code bulkChunkSize()} rows. For each chunk:</p>
+   * <ol>
+   *   <li>{@code enhanceEntity} runs for every row and the existing documents of the whole chunk are
+   *       resolved with one {@code findDuplicates()} query; when several rows target the same
+   *       document or share a duplicate key, only the last one is kept and the others are
+   *       reported as {@code INVALID}</li>
+   *   <li>rows without a match go through {@code preInsert} and validation; the slug block for all
+   *       of them is reserved in one call</li>
+   *   <li>rows with a match take over its id, slug, sequence and creation audit fields and go
+   *       through {@code preUpdate} and the update validation; rows identical to the stored
+   *       document are skipped</li>
+   *   <li>all inserts and replacements are sent as one unordered bulk write, then
+   *       {@code postInsert} / {@code postUpdate} run for each written row</li>
+   * </ol>
+   * 
+   * <p><strong>Results:</strong> every input row is reported, in input order, as {@code CREATE},
+   * {@code UPDATE}, {@code IGNORE} (no change) or {@code INVALID} (validation, hook or write
+   * failure, with its errors). The call is not transactional; rows written before a failure stay
+   * written.</p>
+   * 
+   * <p><strong>Example:</strong></p>
+   * <pre>{@code
+   * BulkResult<User> result = userService.bulkUpsertBatched(rows);
+   * log.info("{} created, {} updated", result.count(UpdateAction.CREATE),
+   *     result.count(UpdateAction.UPDATE));
+   * }</pre>
+   * 
+   * @param list the entities to upsert (must not be null or contain null elements)
+   * @return the written entities and a result per input row
+   * 
+   * @see #bulkUpsert(List) for an all-or-nothing upsert
+   */
+  BulkResult<T> bulkUpsertBatched(@Nonnull List<T> list);
+
 }
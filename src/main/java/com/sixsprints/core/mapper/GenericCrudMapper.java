@@ -8,6 +8,7 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 
+import com.sixsprints.core.dto.FilterResultPage;
 import com.sixsprints.core.dto.PageDto;
 import com.sixsprints.core.utils.DateUtil;
 
@@ -61,6 +62,8 @@ public abstract class GenericCrudMapper<ENTITY, DTO> {
     pageDto.setTotalElements(page.getTotalElements());
     pageDto.setTotalPages(page.getTotalPages());
     pageDto.setContent(page.getContent());
+    pageDto.setTotalExact(totalExact(page));
+    pageDto.setNextCursor(nextCursor(page));
     return pageDto;
   }
 
@@ -70,9 +73,25 @@ public abstract class GenericCrudMapper<ENTITY, DTO> {
     pageDto.setCurrentPage(page.getNumber());
     pageDto.setTotalElements(page.getTotalElements());
     pageDto.setTotalPages(page.getTotalPages());
+    pageDto.setTotalExact(totalExact(page));
+    pageDto.setNextCursor(nextCursor(page));
     return pageDto;
   }
 
+  private Boolean totalExact(Page<?> page) {
+    if (page instanceof FilterResultPage) {
+      return ((FilterResultPage<?>) page).isTotalExact();
+    }
+    return Boolean.TRUE;
+  }
+
+  private String nextCursor(Page<?> page) {
+    if (page instanceof FilterResultPage) {
+      return ((FilterResultPage<?>) page).getNextCursor();
+    }
+    return null;
+  }
+
   protected String epochToString(Long epoch) {
     return epoch == null ? null : dateUtil.epochToString(epoch);
   }
@@ -1,9 +1,355 @@
 package com.sixsprints.core.service;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+import com.sixsprints.core.annotation.AuditCsvImport;
+import com.sixsprints.core.constants.ExceptionConstants;
 import com.sixsprints.core.domain.AbstractMongoEntity;
+import com.sixsprints.core.dto.BulkResult;
+import com.sixsprints.core.dto.BulkRowResult;
+import com.sixsprints.core.dto.ImportRowReport;
+import com.sixsprints.core.dto.ImportSummary;
+import com.sixsprints.core.enums.ImportOperation;
+import com.sixsprints.core.enums.UpdateAction;
+import com.sixsprints.core.enums.UploadErrorType;
+import com.sixsprints.core.exception.BaseRuntimeException;
 import com.sixsprints.core.generic.update.AbstractUpdateService;
+import com.sixsprints.core.utils.ApplicationContext;
+import com.sixsprints.core.utils.ConcurrencyUtil;
+import com.sixsprints.core.utils.ContextPropagatingExecutor;
+import com.sixsprints.core.utils.CsvReader;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 public abstract class AbstractCrudService<T extends AbstractMongoEntity> extends AbstractUpdateService<T>
   implements GenericCrudService<T> {
 
+  @Value("${import.operation.column:operation}")
+  private String importOperationColumn;
+
+  @Value("${import.parallelism:4}")
+  private int importParallelism;
+
+  @Override
+  public ImportSummary importCsv(Reader csv, Consumer<ImportRowReport> report) {
+    return importCsv(csv, EnumSet.allOf(ImportOperation.class), report);
+  }
+
+  @Override
+  public ImportSummary importCsv(Reader csv, Set<ImportOperation> operations,
+      Consumer<ImportRowReport> report) {
+    assertValid(csv != null, "csv", csv);
+    assertValid(operations != null && !operations.isEmpty(), "operations", operations);
+    Consumer<ImportRowReport> sink = report == null ? row -> {
+    } : report;
+    ImportSummary summary = ImportSummary.builder().build();
+    try (CsvReader reader = new CsvReader(csv)) {
+      List<String> header = reader.readRecord();
+      if (header != null) {
+        ImportColumns columns = importColumns(header, operations, summary, sink);
+        int chunkSize = Math.max(1, bulkChunkSize());
+        List<List<String>> chunk = new ArrayList<>();
+        long firstRow = reader.getRecordNumber() + 1;
+        List<String> record;
+        while ((record = reader.readRecord()) != null) {
+          chunk.add(record);
+          if (chunk.size() == chunkSize) {
+            importChunk(chunk, firstRow, columns, summary, sink);
+            chunk = new ArrayList<>();
+            firstRow = reader.getRecordNumber() + 1;
+          }
+        }
+        if (!chunk.isEmpty()) {
+          importChunk(chunk, firstRow, columns, summary, sink);
+        }
+      }
+    } catch (IOException ex) {
+      throw BaseRuntimeException.builder().error(ex.getMessage()).build();
+    }
+    summary.setMessage(localisedMessage(ExceptionConstants.CSV_IMPORT_MESSAGE,
+        List.of(metaData().getClassType().getSimpleName(), summary.getRows(), summary.getCreated(),
+            summary.getUpdated(), summary.getDeleted(), summary.getIgnored(), summary.getInvalid(),
+            summary.getWarnings())));
+    if (metaData().getClassType().isAnnotationPresent(AuditCsvImport.class)) {
+      AbstractMongoEntity currentUser = ApplicationContext.getCurrentUser();
+      log.info("CSV import by {}: {}", currentUser == null ? null : userAuditField(currentUser),
+          summary.getMessage());
+    }
+    return summary;
+  }
+
+  /**
+   * Entity property a CSV column is imported into, or {@code null} to ignore the column. Defaults
+   * to the header itself when it names a writable property; nested properties are written as
+   * {@code address.city}.
+   */
+  protected String importProperty(String header, BeanWrapper probe) {
+    String property = header.trim();
+    if (!StringUtils.hasText(property) || !probe.isWritableProperty(property)) {
+      return null;
+    }
+    return property;
+  }
+
+  /**
+   * Header of the column holding each row's {@link ImportOperation}. Rows without one are upserted.
+   * Configured by {@code import.operation.column}.
+   */
+  protected String importOperationColumn() {
+    return importOperationColumn;
+  }
+
+  /**
+   * Number of slices each chunk is split into for mapping and validation, which run concurrently on
+   * {@link #readExecutor()}. Configured by {@code import.parallelism}; 1 maps on the caller thread.
+   */
+  protected int importParallelism() {
+    return importParallelism;
+  }
+
+  private ImportColumns importColumns(List<String> header, Set<ImportOperation> operations,
+      ImportSummary summary, Consumer<ImportRowReport> report) {
+    BeanWrapper probe = wrapper(BeanUtils.instantiateClass(metaData().getClassType()));
+    String[] properties = new String[header.size()];
+    int operationIndex = -1;
+    List<String> ignored = new ArrayList<>();
+    for (int i = 0; i < header.size(); i++) {
+      String column = header.get(i).trim();
+      if (column.equalsIgnoreCase(importOperationColumn())) {
+        operationIndex = i;
+        continue;
+      }
+      properties[i] = importProperty(column, probe);
+      if (properties[i] == null) {
+        ignored.add(createViolationError(column,
+            "is not a property of " + metaData().getClassType().getSimpleName(), ""));
+      }
+    }
+    if (!ignored.isEmpty()) {
+      summary.setWarnings(summary.getWarnings() + 1);
+      report.accept(ImportRowReport.builder().row(1).type(UploadErrorType.WARNING)
+          .action(UpdateAction.IGNORE).messages(ignored).build());
+    }
+    return new ImportColumns(properties, operationIndex, operations);
+  }
+
+  private void importChunk(List<List<String>> records, long firstRow, ImportColumns columns,
+      ImportSummary summary, Consumer<ImportRowReport> report) {
+    summary.setRows(summary.getRows() + records.size());
+    List<ImportRow<T>> rows = mapRows(records, firstRow, columns);
+
+    List<T> upserts = new ArrayList<>();
+    List<List<String>> upsertProps = new ArrayList<>();
+    List<ImportRow<T>> upsertRows = new ArrayList<>();
+    List<ImportRow<T>> deleteRows = new ArrayList<>();
+    for (ImportRow<T> row : rows) {
+      if (!row.errors().isEmpty()) {
+        reportInvalid(row, row.errors(), summary, report);
+      } else if (ImportOperation.DELETE.equals(row.operation())) {
+        deleteRows.add(row);
+      } else {
+        upserts.add(row.entity());
+        upsertProps.add(row.properties());
+        upsertRows.add(row);
+      }
+    }
+    if (!upserts.isEmpty()) {
+      BulkResult<T> result = bulkUpsertBatched(upserts, upsertProps);
+      for (BulkRowResult outcome : result.getRows()) {
+        ImportRow<T> row = upsertRows.get(outcome.getIndex());
+        switch (outcome.getAction()) {
+        case CREATE:
+          summary.setCreated(summary.getCreated() + 1);
+          break;
+        case UPDATE:
+          summary.setUpdated(summary.getUpdated() + 1);
+          break;
+        case IGNORE:
+          summary.setIgnored(summary.getIgnored() + 1);
+          break;
+        default:
+          reportInvalid(row, outcome.getErrors(), summary, report);
+          break;
+        }
+      }
+    }
+    if (!deleteRows.isEmpty()) {
+      importDeletes(deleteRows, summary, report);
+    }
+  }
+
+  /**
+   * Deletes are resolved with one lookup per chunk, so that rows naming no stored entity are
+   * reported, and removed with one bulk delete.
+   */
+  private void importDeletes(List<ImportRow<T>> rows, ImportSummary summary,
+      Consumer<ImportRowReport> report) {
+    Set<String> slugs = new HashSet<>();
+    Set<String> ids = new HashSet<>();
+    for (ImportRow<T> row : rows) {
+      if (StringUtils.hasText(row.entity().getSlug())) {
+        slugs.add(row.entity().getSlug());
+      } else {
+        ids.add(row.entity().getId());
+      }
+    }
+    Query query = new Query(liveCriteria(new Criteria().orOperator(
+        Criteria.where(AbstractMongoEntity.Fields.slug).in(slugs),
+        Criteria.where(AbstractMongoEntity.Fields.id).in(ids))));
+    query.fields().include(AbstractMongoEntity.Fields.id, AbstractMongoEntity.Fields.slug);
+    Map<String, String> idsByKey = new HashMap<>();
+    for (T stored : mongo.find(query, metaData().getClassType())) {
+      idsByKey.put(stored.getId(), stored.getId());
+      if (stored.getSlug() != null) {
+        idsByKey.put(stored.getSlug(), stored.getId());
+      }
+    }
+    Set<String> toDelete = new LinkedHashSet<>();
+    for (ImportRow<T> row : rows) {
+      String key = StringUtils.hasText(row.entity().getSlug()) ? row.entity().getSlug()
+          : row.entity().getId();
+      String id = idsByKey.get(key);
+      if (id == null || toDelete.contains(id)) {
+        summary.setIgnored(summary.getIgnored() + 1);
+        summary.setWarnings(summary.getWarnings() + 1);
+        report.accept(report(row, UpdateAction.IGNORE, UploadErrorType.WARNING,
+            List.of(metaData().getClassType().getSimpleName() + " not found: " + key)));
+      } else {
+        toDelete.add(id);
+      }
+    }
+    if (!toDelete.isEmpty()) {
+      bulkDeleteById(new ArrayList<>(toDelete));
+      summary.setDeleted(summary.getDeleted() + toDelete.size());
+    }
+  }
+
+  private List<ImportRow<T>> mapRows(List<List<String>> records, long firstRow,
+      ImportColumns columns) {
+    int slices = Math.max(1, Math.min(importParallelism(), records.size()));
+    if (slices == 1 || TransactionSynchronizationManager.isActualTransactionActive()) {
+      return mapSlice(records, firstRow, columns);
+    }
+    int sliceSize = (records.size() + slices - 1) / slices;
+    List<Callable<List<ImportRow<T>>>> tasks = new ArrayList<>();
+    for (int from = 0; from < records.size(); from += sliceSize) {
+      List<List<String>> slice = records.subList(from, Math.min(records.size(), from + sliceSize));
+      long sliceFirstRow = firstRow + from;
+      tasks.add(() -> mapSlice(slice, sliceFirstRow, columns));
+    }
+    List<ImportRow<T>> rows = new ArrayList<>();
+    ConcurrencyUtil.invokeAll(new ContextPropagatingExecutor(readExecutor()), tasks)
+        .forEach(rows::addAll);
+    return rows;
+  }
+
+  private List<ImportRow<T>> mapSlice(List<List<String>> records, long firstRow,
+      ImportColumns columns) {
+    List<ImportRow<T>> rows = new ArrayList<>();
+    for (int i = 0; i < records.size(); i++) {
+      rows.add(mapRow(records.get(i), firstRow + i, columns));
+    }
+    return rows;
+  }
+
+  private ImportRow<T> mapRow(List<String> record, long row, ImportColumns columns) {
+    List<String> errors = new ArrayList<>();
+    ImportOperation operation = ImportOperation.UPSERT;
+    String operationValue = value(record, columns.operationIndex());
+    if (StringUtils.hasText(operationValue)) {
+      try {
+        operation = ImportOperation.valueOf(operationValue.trim().toUpperCase());
+      } catch (IllegalArgumentException ex) {
+        errors.add(createViolationError(importOperationColumn(),
+            "must be one of " + Arrays.toString(ImportOperation.values()),
+            " (was: '" + operationValue + "')"));
+      }
+    }
+    if (errors.isEmpty() && !columns.operations().contains(operation)) {
+      errors.add(createViolationError(importOperationColumn(), "is not allowed by this import",
+          " (was: '" + operation + "')"));
+    }
+    T entity = BeanUtils.instantiateClass(metaData().getClassType());
+    BeanWrapper wrapper = wrapper(entity);
+    List<String> written = new ArrayList<>();
+    for (int i = 0; i < columns.properties().length; i++) {
+      String property = columns.properties()[i];
+      String value = value(record, i);
+      if (property == null || !StringUtils.hasText(value)) {
+        continue;
+      }
+      try {
+        wrapper.setPropertyValue(property, value);
+        written.add(property);
+      } catch (BeansException ex) {
+        errors.add(createViolationError(property, "could not be converted",
+            " (was: '" + value + "')"));
+      }
+    }
+    if (!errors.isEmpty()) {
+      return new ImportRow<>(row, operation, entity, written, errors);
+    }
+    if (ImportOperation.DELETE.equals(operation)) {
+      if (!StringUtils.hasText(entity.getSlug()) && !StringUtils.hasText(entity.getId())) {
+        errors.add(createViolationError(AbstractMongoEntity.Fields.slug,
+            "or id is required to delete", ""));
+      }
+    } else {
+      errors.addAll(checkPropertyValidity(entity, written));
+    }
+    return new ImportRow<>(row, operation, entity, written, errors);
+  }
+
+  private void reportInvalid(ImportRow<T> row, List<String> errors, ImportSummary summary,
+      Consumer<ImportRowReport> report) {
+    summary.setInvalid(summary.getInvalid() + 1);
+    report.accept(report(row, UpdateAction.INVALID, UploadErrorType.ERROR, errors));
+  }
+
+  private ImportRowReport report(ImportRow<T> row, UpdateAction action, UploadErrorType type,
+      List<String> messages) {
+    return ImportRowReport.builder().row(row.row()).operation(row.operation()).action(action)
+        .type(type).slug(row.entity().getSlug()).messages(messages).build();
+  }
+
+  private static String value(List<String> record, int index) {
+    return index >= 0 && index < record.size() ? record.get(index) : null;
+  }
+
+  private static BeanWrapper wrapper(Object bean) {
+    BeanWrapperImpl wrapper = new BeanWrapperImpl(bean);
+    wrapper.setAutoGrowNestedPaths(true);
+    wrapper.setConversionService(DefaultConversionService.getSharedInstance());
+    return wrapper;
+  }
+
+  private record ImportColumns(String[] properties, int operationIndex,
+      Set<ImportOperation> operations) {
+  }
+
+  private record ImportRow<E>(long row, ImportOperation operation, E entity,
+      List<String> properties, List<String> errors) {
+  }
+
 }
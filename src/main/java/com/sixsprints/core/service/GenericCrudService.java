@@ -1,6 +1,12 @@
 package com.sixsprints.core.service;
 
+import java.io.Reader;
+import java.util.Set;
+import java.util.function.Consumer;
 import com.sixsprints.core.domain.AbstractMongoEntity;
+import com.sixsprints.core.dto.ImportRowReport;
+import com.sixsprints.core.dto.ImportSummary;
+import com.sixsprints.core.enums.ImportOperation;
 import com.sixsprints.core.generic.create.GenericCreateService;
 import com.sixsprints.core.generic.delete.GenericDeleteService;
 import com.sixsprints.core.generic.read.GenericReadService;
@@ -9,4 +15,55 @@ import com.sixsprints.core.generic.update.GenericUpdateService;
 public interface GenericCrudService<T extends AbstractMongoEntity>
   extends GenericCreateService<T>, GenericReadService<T>, GenericUpdateService<T>, GenericDeleteService<T> {
 
+  /**
+   * Imports a CSV file into this collection as a stream, so memory stays constant however many
+   * rows the file has.
+   *
+   * <p>
+   * The first record is the header. Each column is mapped to the entity property it names (nested
+   * properties as {@code address.city}); unknown columns are reported as a warning on row 1 and
+   * ignored. An optional {@code operation} column holds the {@code ImportOperation} of each row,
+   * {@code UPSERT} when blank.
+   * </p>
+   *
+   * <p>
+   * Processing:
+   * </p>
+   * <ul>
+   * <li>Rows are read in chunks of {@code create.bulk.chunk.size}</li>
+   * <li>Each chunk is converted to entities and the imported properties validated concurrently on
+   * the read executor</li>
+   * <li>Upserts of a chunk go through one batched upsert, with the usual hooks and full
+   * validation; a row matching a stored document only sets its non-blank columns on it, so the
+   * other stored properties are kept</li>
+   * <li>Deletes of a chunk, identified by slug or id, are resolved with one lookup and removed with
+   * one bulk delete after the chunk's upserts</li>
+   * </ul>
+   *
+   * <p>
+   * Every row that fails is reported as an {@code ERROR}; deletes of unknown entities and unknown
+   * columns as a {@code WARNING}. Reports are handed to {@code report} on the calling thread as soon
+   * as their chunk is done, so they can be streamed back to the client. Entity classes annotated
+   * with {@code @AuditCsvImport} have every import logged with the importing user.
+   * </p>
+   *
+   * @param csv    the CSV content; closed when the import finishes
+   * @param report receives the errors and warnings as they are found; may be null
+   * @return the totals of the import
+   */
+  ImportSummary importCsv(Reader csv, Consumer<ImportRowReport> report);
+
+  /**
+   * Same as {@link #importCsv(Reader, Consumer)}, but only rows whose operation is in
+   * {@code operations} are applied; the others are reported as an {@code ERROR}. Lets callers
+   * guard each operation by its own permission.
+   *
+   * @param csv        the CSV content; closed when the import finishes
+   * @param operations the operations the rows may use
+   * @param report     receives the errors and warnings as they are found; may be null
+   * @return the totals of the import
+   */
+  ImportSummary importCsv(Reader csv, Set<ImportOperation> operations,
+      Consumer<ImportRowReport> report);
+
 }
@@ -0,0 +1,90 @@
+package com.sixsprints.core.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+
+import org.springframework.data.util.Pair;
+
+import com.sixsprints.core.exception.BaseRuntimeException;
+
+public class ConcurrencyUtil {
+
+  /**
+   * Runs both tasks concurrently on the executor and waits for both. As soon as either one fails
+   * the other is cancelled (its thread interrupted) and the failure is rethrown.
+   */
+  public static <A, B> Pair<A, B> invokeBoth(Executor executor, Callable<A> first,
+      Callable<B> second) {
+    ExecutorCompletionService<Object> completionService =
+        new ExecutorCompletionService<>(executor);
+    Future<Object> firstFuture = completionService.submit(first::call);
+    Future<Object> secondFuture = completionService.submit(second::call);
+    try {
+      for (int i = 0; i < 2; i++) {
+        completionService.take().get();
+      }
+      @SuppressWarnings("unchecked")
+      A firstResult = (A) firstFuture.get();
+      @SuppressWarnings("unchecked")
+      B secondResult = (B) secondFuture.get();
+      return Pair.of(firstResult, secondResult);
+    } catch (ExecutionException ex) {
+      firstFuture.cancel(true);
+      secondFuture.cancel(true);
+      throw rethrow(ex.getCause());
+    } catch (InterruptedException ex) {
+      firstFuture.cancel(true);
+      secondFuture.cancel(true);
+      Thread.currentThread().interrupt();
+      throw BaseRuntimeException.builder().error(ex.getMessage()).build();
+    }
+  }
+
+  /**
+   * Runs all tasks concurrently on the executor and returns their results in task order. As soon as
+   * one fails the others are cancelled (their threads interrupted) and the failure is rethrown.
+   */
+  public static <R> List<R> invokeAll(Executor executor, List<Callable<R>> tasks) {
+    ExecutorCompletionService<R> completionService = new ExecutorCompletionService<>(executor);
+    List<Future<R>> futures = new ArrayList<>();
+    try {
+      for (Callable<R> task : tasks) {
+        futures.add(completionService.submit(task));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        completionService.take().get();
+      }
+      List<R> results = new ArrayList<>();
+      for (Future<R> future : futures) {
+        results.add(future.get());
+      }
+      return results;
+    } catch (ExecutionException ex) {
+      futures.forEach(future -> future.cancel(true));
+      throw rethrow(ex.getCause());
+    } catch (InterruptedException ex) {
+      futures.forEach(future -> future.cancel(true));
+      Thread.currentThread().interrupt();
+      throw BaseRuntimeException.builder().error(ex.getMessage()).build();
+    } catch (RuntimeException ex) {
+      futures.forEach(future -> future.cancel(true));
+      throw ex;
+    }
+  }
+
+  private static RuntimeException rethrow(Throwable cause) {
+    if (cause instanceof RuntimeException) {
+      return (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    return BaseRuntimeException.builder().error(cause.getMessage()).build();
+  }
+
+}
@@ -0,0 +1,107 @@
+package com.sixsprints.core.utils;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.MDC;
+
+import com.sixsprints.core.dto.RequestContext;
+
+/**
+ * Executor decorator that carries the caller's {@link ApplicationContext} (current user and
+ * request) and logging MDC into the task, and restores the worker's own state afterwards. Pool
+ * threads are reused, so the inheritable thread locals of {@link ApplicationContext} cannot be
+ * relied upon there.
+ */
+public class ContextPropagatingExecutor implements Executor {
+
+  private static final int SHARED_POOL_SIZE =
+      Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+  private static volatile ExecutorService sharedPool;
+
+  private final Executor delegate;
+
+  public ContextPropagatingExecutor(Executor delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    Executor context = capture();
+    delegate.execute(() -> context.execute(command));
+  }
+
+  /**
+   * Captures the calling thread's context and returns an executor that runs commands inline under
+   * it, for work picked up later by a long-lived thread rather than handed to an executor.
+   */
+  public static Executor capture() {
+    Object user = ApplicationContext.userData.get();
+    RequestContext request = ApplicationContext.requestData.get();
+    Map<String, String> mdc = MDC.getCopyOfContextMap();
+    return command -> {
+      Object previousUser = ApplicationContext.userData.get();
+      RequestContext previousRequest = ApplicationContext.requestData.get();
+      Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+      apply(user, request, mdc);
+      try {
+        command.run();
+      } finally {
+        apply(previousUser, previousRequest, previousMdc);
+      }
+    };
+  }
+
+  /**
+   * Lazily created pool of daemon threads shared by the generic services for their background
+   * reads. Sized at twice the processor count (minimum 4); threads time out when idle.
+   */
+  public static ExecutorService sharedPool() {
+    if (sharedPool == null) {
+      synchronized (ContextPropagatingExecutor.class) {
+        if (sharedPool == null) {
+          ThreadPoolExecutor pool = new ThreadPoolExecutor(SHARED_POOL_SIZE, SHARED_POOL_SIZE, 60L,
+              TimeUnit.SECONDS, new LinkedBlockingQueue<>(), daemonThreadFactory());
+          pool.allowCoreThreadTimeOut(true);
+          sharedPool = pool;
+        }
+      }
+    }
+    return sharedPool;
+  }
+
+  private static ThreadFactory daemonThreadFactory() {
+    AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, "mongo-core-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  private static void apply(Object user, RequestContext request, Map<String, String> mdc) {
+    if (user == null) {
+      ApplicationContext.userData.remove();
+    } else {
+      ApplicationContext.userData.set(user);
+    }
+    if (request == null) {
+      ApplicationContext.requestData.remove();
+    } else {
+      ApplicationContext.requestData.set(request);
+    }
+    if (mdc == null) {
+      MDC.clear();
+    } else {
+      MDC.setContextMap(mdc);
+    }
+  }
+
+}
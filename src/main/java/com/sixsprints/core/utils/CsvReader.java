@@ -0,0 +1,138 @@
+package com.sixsprints.core.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader of RFC 4180 CSV. Records are read one at a time through a fixed size buffer, so
+ * memory stays constant however large the input is. Quoted fields may contain delimiters, line
+ * breaks and doubled quotes; records may end with CRLF, LF or CR; a leading byte order mark is
+ * skipped and blank lines are ignored.
+ */
+public class CsvReader implements Closeable {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private static final char QUOTE = '"';
+
+  private static final char BOM = '\uFEFF';
+
+  private final Reader reader;
+
+  private final char delimiter;
+
+  private final char[] buffer = new char[BUFFER_SIZE];
+
+  private int position;
+
+  private int limit;
+
+  private boolean started;
+
+  private long recordNumber;
+
+  public CsvReader(Reader reader) {
+    this(reader, ',');
+  }
+
+  public CsvReader(Reader reader, char delimiter) {
+    this.reader = reader;
+    this.delimiter = delimiter;
+  }
+
+  /**
+   * Reads the next record.
+   *
+   * @return the fields of the record, or {@code null} at the end of the input
+   * @throws IOException if the input cannot be read or ends inside a quoted field
+   */
+  public List<String> readRecord() throws IOException {
+    if (!started) {
+      started = true;
+      if (peek() == BOM) {
+        position++;
+      }
+    }
+    int next;
+    while ((next = peek()) == '\r' || next == '\n') {
+      position++;
+    }
+    if (next < 0) {
+      return null;
+    }
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    boolean wasQuoted = false;
+    while (true) {
+      int c = read();
+      if (quoted) {
+        if (c < 0) {
+          throw new IOException("Unterminated quoted field in record " + (recordNumber + 1));
+        }
+        if (c == QUOTE) {
+          if (peek() == QUOTE) {
+            position++;
+            field.append(QUOTE);
+          } else {
+            quoted = false;
+          }
+        } else {
+          field.append((char) c);
+        }
+      } else if (c == QUOTE && field.length() == 0 && !wasQuoted) {
+        quoted = true;
+        wasQuoted = true;
+      } else if (c == delimiter) {
+        fields.add(field.toString());
+        field.setLength(0);
+        wasQuoted = false;
+      } else if (c < 0 || c == '\n' || c == '\r') {
+        if (c == '\r' && peek() == '\n') {
+          position++;
+        }
+        fields.add(field.toString());
+        recordNumber++;
+        return fields;
+      } else {
+        field.append((char) c);
+      }
+    }
+  }
+
+  /**
+   * Number of records read so far.
+   */
+  public long getRecordNumber() {
+    return recordNumber;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  private int read() throws IOException {
+    int c = peek();
+    if (c >= 0) {
+      position++;
+    }
+    return c;
+  }
+
+  private int peek() throws IOException {
+    if (position >= limit) {
+      limit = reader.read(buffer, 0, BUFFER_SIZE);
+      position = 0;
+      if (limit <= 0) {
+        limit = 0;
+        return -1;
+      }
+    }
+    return buffer[position];
+  }
+
+}
@@ -0,0 +1,97 @@
+package com.sixsprints.core.utils;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes RFC 4180 CSV one record at a time, the counterpart of {@link CsvReader}. Fields holding a
+ * delimiter, quote or line break are quoted, with quotes doubled; {@code null} is written as an
+ * empty field. Records end with CRLF. Fields other than numbers that start with {@code =}, {@code +},
+ * {@code -}, {@code @}, a tab or a carriage return get a leading {@code '}, so that spreadsheets
+ * show them as text instead of evaluating them as formulas.
+ */
+public class CsvWriter implements Closeable, Flushable {
+
+  private static final char QUOTE = '"';
+
+  private static final String LINE_END = "\r\n";
+
+  private static final String FORMULA_START = "=+-@\t\r";
+
+  private static final char TEXT_PREFIX = '\'';
+
+  private final Writer writer;
+
+  private final char delimiter;
+
+  public CsvWriter(Writer writer) {
+    this(writer, ',');
+  }
+
+  public CsvWriter(Writer writer, char delimiter) {
+    this.writer = writer;
+    this.delimiter = delimiter;
+  }
+
+  public void writeRecord(List<?> fields) throws IOException {
+    for (int i = 0; i < fields.size(); i++) {
+      if (i > 0) {
+        writer.write(delimiter);
+      }
+      Object field = fields.get(i);
+      if (field instanceof Number) {
+        writeField(field.toString());
+      } else if (field != null) {
+        writeField(escapeFormula(field.toString()));
+      }
+    }
+    writer.write(LINE_END);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    writer.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    writer.close();
+  }
+
+  private void writeField(String field) throws IOException {
+    if (!needsQuotes(field)) {
+      writer.write(field);
+      return;
+    }
+    writer.write(QUOTE);
+    for (int i = 0; i < field.length(); i++) {
+      char c = field.charAt(i);
+      if (c == QUOTE) {
+        writer.write(QUOTE);
+      }
+      writer.write(c);
+    }
+    writer.write(QUOTE);
+  }
+
+  private static String escapeFormula(String field) {
+    if (field.isEmpty() || FORMULA_START.indexOf(field.charAt(0)) < 0) {
+      return field;
+    }
+    return TEXT_PREFIX + field;
+  }
+
+  private boolean needsQuotes(String field) {
+    for (int i = 0; i < field.length(); i++) {
+      char c = field.charAt(i);
+      if (c == delimiter || c == QUOTE || c == '\n' || c == '\r') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+}
@@ -0,0 +1,65 @@
+package com.sixsprints.core.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+
+/**
+ * Encodes keyset pagination cursors. A cursor holds the sort keys it was built for and the values
+ * of those keys on the last row of a page, serialised as extended JSON so BSON types (dates,
+ * decimals, longs) survive the round trip, and wrapped in URL safe base64. Cursors come back from
+ * the client, so decoding only accepts scalar values: an embedded document could carry query
+ * operators such as {@code {"$ne": null}} into the seek criteria.
+ */
+public class CursorUtil {
+
+  private static final String KEYS = "k";
+
+  private static final String VALUES = "v";
+
+  private static final JsonWriterSettings JSON_SETTINGS =
+      JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build();
+
+  public static String encode(List<String> keys, List<Object> values) {
+    if (keys.size() != values.size()) {
+      throw new IllegalArgumentException("Cursor keys and values must be of the same size");
+    }
+    Document cursor = new Document(KEYS, keys).append(VALUES, values);
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(cursor.toJson(JSON_SETTINGS).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @throws IllegalArgumentException if the cursor is malformed, holds a document or array value,
+   *         or was built for other sort keys
+   */
+  public static List<Object> decode(String cursor, List<String> keys) {
+    List<String> cursorKeys;
+    List<Object> values;
+    try {
+      Document document = Document
+          .parse(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+      cursorKeys = document.getList(KEYS, String.class);
+      values = document.getList(VALUES, Object.class);
+    } catch (RuntimeException ex) {
+      throw new IllegalArgumentException("Malformed cursor", ex);
+    }
+    if (!keys.equals(cursorKeys)) {
+      throw new IllegalArgumentException("Cursor does not match the requested sort");
+    }
+    if (values == null || values.size() != keys.size()) {
+      throw new IllegalArgumentException("Malformed cursor");
+    }
+    if (values.stream().anyMatch(value -> value instanceof Map || value instanceof Iterable)) {
+      throw new IllegalArgumentException("Cursor values must be scalars");
+    }
+    return new ArrayList<>(values);
+  }
+
+}
@@ -0,0 +1,50 @@
+package com.sixsprints.core.utils;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Computes the minimal update that turns one stored document into another. Embedded documents
+ * present on both sides are compared field by field, so a change deep inside a large document
+ * becomes a {@code $set} of that one path; arrays and other values are replaced as a whole.
+ * Fields missing from the new document are {@code $unset}.
+ */
+public class DocumentDiffUtil {
+
+  /**
+   * @param ignored top-level keys left out of the comparison, such as {@code _id}
+   * @return the update, with an empty update object when the documents are equal
+   */
+  public static Update diff(Document before, Document after, Set<String> ignored) {
+    Update update = new Update();
+    diff("", before, after, ignored, update);
+    return update;
+  }
+
+  public static boolean isEmpty(Update update) {
+    return update.getUpdateObject().isEmpty();
+  }
+
+  private static void diff(String prefix, Map<?, ?> before, Map<?, ?> after, Set<String> ignored,
+      Update update) {
+    after.forEach((key, value) -> {
+      if (ignored.contains(key)) {
+        return;
+      }
+      String path = prefix + key;
+      Object previous = before.get(key);
+      if (value instanceof Map && previous instanceof Map) {
+        diff(path + ".", (Map<?, ?>) previous, (Map<?, ?>) value, Set.of(), update);
+      } else if (!before.containsKey(key) || !Objects.equals(previous, value)) {
+        update.set(path, value);
+      }
+    });
+    before.keySet().stream().filter(key -> !after.containsKey(key) && !ignored.contains(key))
+        .forEach(key -> update.unset(prefix + key));
+  }
+
+}
@@ -0,0 +1,56 @@
+package com.sixsprints.core.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates unique, time-ordered 64-bit ids without a database round trip. An id holds 41 bits of
+ * milliseconds since 2024-01-01 UTC, a 10-bit node id and a 12-bit counter, so ids of different
+ * nodes never collide as long as every node has its own node id. The last issued timestamp and
+ * counter are advanced with a compare-and-set; when the counter of a millisecond is exhausted or
+ * the clock moves backwards, the generator keeps counting on the last timestamp instead of
+ * waiting, so ids stay increasing within a node.
+ */
+public class SnowflakeIdGenerator {
+
+  public static final int MAX_NODE_ID = (1 << 10) - 1;
+
+  private static final long EPOCH = 1704067200000L;
+
+  private static final int NODE_BITS = 10;
+
+  private static final int COUNTER_BITS = 12;
+
+  private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+
+  private final long nodeId;
+
+  private final LongSupplier clock;
+
+  private final AtomicLong last = new AtomicLong();
+
+  public SnowflakeIdGenerator(int nodeId) {
+    this(nodeId, System::currentTimeMillis);
+  }
+
+  public SnowflakeIdGenerator(int nodeId, LongSupplier clock) {
+    if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+      throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+    }
+    this.nodeId = nodeId;
+    this.clock = clock;
+  }
+
+  public long nextId() {
+    while (true) {
+      long now = clock.getAsLong() - EPOCH;
+      long previous = last.get();
+      long next = now > (previous >>> COUNTER_BITS) ? now << COUNTER_BITS : previous + 1;
+      if (last.compareAndSet(previous, next)) {
+        return (next >>> COUNTER_BITS) << (NODE_BITS + COUNTER_BITS)
+            | nodeId << COUNTER_BITS | (next & COUNTER_MASK);
+      }
+    }
+  }
+
+}
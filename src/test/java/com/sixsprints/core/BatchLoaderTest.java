@@ -0,0 +1,67 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.sixsprints.core.generic.read.BatchLoader;
+
+public class BatchLoaderTest {
+
+  private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+  private final Function<List<String>, Map<String, String>> upperCase = keys -> {
+    batches.add(keys);
+    return keys.stream().filter(key -> !key.equals("missing"))
+        .collect(Collectors.toMap(key -> key, String::toUpperCase));
+  };
+
+  @Test
+  public void shouldCoalesceLookupsWithinTheWindow() {
+    BatchLoader<String, String> loader = new BatchLoader<>(upperCase, 50L, 100, Runnable::run);
+    CompletableFuture<String> a = loader.load("a");
+    CompletableFuture<String> b = loader.load("b");
+    CompletableFuture<String> again = loader.load("a");
+    CompletableFuture<String> missing = loader.load("missing");
+
+    assertThat(a.join()).isEqualTo("A");
+    assertThat(b.join()).isEqualTo("B");
+    assertThat(again).isSameAs(a);
+    assertThat(missing.join()).isNull();
+    assertThat(batches).containsExactly(List.of("a", "b", "missing"));
+  }
+
+  @Test
+  public void shouldDispatchFullBatchImmediately() {
+    BatchLoader<String, String> loader = new BatchLoader<>(upperCase, 60_000L, 2, Runnable::run);
+    CompletableFuture<String> a = loader.load("a");
+    CompletableFuture<String> b = loader.load("b");
+
+    assertThat(a).isCompletedWithValue("A");
+    assertThat(b).isCompletedWithValue("B");
+    assertThat(batches).containsExactly(List.of("a", "b"));
+  }
+
+  @Test
+  public void shouldFailEveryCallerOfAFailedBatch() {
+    BatchLoader<String, String> loader = new BatchLoader<>(keys -> {
+      throw new IllegalStateException("down");
+    }, 1L, 100, Runnable::run);
+    CompletableFuture<String> a = loader.load("a");
+    CompletableFuture<String> b = loader.load("b");
+
+    CompletionException ex = Assertions.assertThrows(CompletionException.class, a::join);
+    assertThat(ex.getCause()).isInstanceOf(IllegalStateException.class);
+    Assertions.assertThrows(CompletionException.class, b::join);
+  }
+
+}
@@ -0,0 +1,77 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.data.util.Pair;
+
+import com.sixsprints.core.dto.RequestContext;
+import com.sixsprints.core.utils.ApplicationContext;
+import com.sixsprints.core.utils.ConcurrencyUtil;
+import com.sixsprints.core.utils.ContextPropagatingExecutor;
+
+public class ConcurrencyUtilTest {
+
+  private final ExecutorService pool = Executors.newFixedThreadPool(2);
+
+  @AfterEach
+  public void after() {
+    pool.shutdownNow();
+    ApplicationContext.clear();
+    MDC.clear();
+  }
+
+  @Test
+  public void shouldPropagateContextIntoBothTasks() {
+    ApplicationContext.setCurrentRequest(RequestContext.builder().requestId("req-1").build());
+    MDC.put("user", "USR0001");
+
+    Pair<String, String> result =
+        ConcurrencyUtil.invokeBoth(new ContextPropagatingExecutor(pool),
+            () -> ApplicationContext.getCurrentRequest().getRequestId(), () -> MDC.get("user"));
+
+    assertThat(result.getFirst()).isEqualTo("req-1");
+    assertThat(result.getSecond()).isEqualTo("USR0001");
+  }
+
+  @Test
+  public void shouldCancelOtherTaskOnFailure() throws InterruptedException {
+    CountDownLatch interrupted = new CountDownLatch(1);
+
+    Assertions.assertThrows(IllegalStateException.class, () -> {
+      ConcurrencyUtil.invokeBoth(pool, () -> {
+        try {
+          Thread.sleep(10_000);
+        } catch (InterruptedException ex) {
+          interrupted.countDown();
+        }
+        return 1;
+      }, () -> {
+        throw new IllegalStateException("count failed");
+      });
+    });
+
+    assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  public void shouldReturnAllResultsInTaskOrder() {
+    List<Callable<Integer>> tasks = List.of(() -> {
+      Thread.sleep(50);
+      return 1;
+    }, () -> 2, () -> 3);
+
+    assertThat(ConcurrencyUtil.invokeAll(pool, tasks)).containsExactly(1, 2, 3);
+  }
+
+}
@@ -0,0 +1,61 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.sixsprints.core.utils.CsvReader;
+
+public class CsvReaderTest {
+
+  @Test
+  public void shouldReadQuotedFieldsAcrossLines() throws IOException {
+    String csv = "\uFEFFname,note,city\r\n"
+        + "Name1,\"says \"\"hi\"\", twice\",Delhi\r\n"
+        + "\n"
+        + "Name2,\"line one\nline two\",\n"
+        + "Name3,,\"\"";
+    try (CsvReader reader = new CsvReader(new StringReader(csv))) {
+      assertThat(reader.readRecord()).containsExactly("name", "note", "city");
+      assertThat(reader.readRecord()).containsExactly("Name1", "says \"hi\", twice", "Delhi");
+      assertThat(reader.readRecord()).containsExactly("Name2", "line one\nline two", "");
+      assertThat(reader.readRecord()).containsExactly("Name3", "", "");
+      assertThat(reader.readRecord()).isNull();
+      assertThat(reader.getRecordNumber()).isEqualTo(4);
+    }
+  }
+
+  @Test
+  public void shouldStreamRecordsLargerThanTheBuffer() throws IOException {
+    String longField = "x".repeat(20_000);
+    StringBuilder csv = new StringBuilder();
+    for (int i = 0; i < 3; i++) {
+      csv.append(i).append(",\"").append(longField).append("\"\n");
+    }
+    try (CsvReader reader = new CsvReader(new StringReader(csv.toString()))) {
+      for (int i = 0; i < 3; i++) {
+        assertThat(reader.readRecord()).isEqualTo(List.of(String.valueOf(i), longField));
+      }
+      assertThat(reader.readRecord()).isNull();
+    }
+  }
+
+  @Test
+  public void shouldSupportOtherDelimiters() throws IOException {
+    try (CsvReader reader = new CsvReader(new StringReader("a;\"b;c\"\n"), ';')) {
+      assertThat(reader.readRecord()).containsExactly("a", "b;c");
+    }
+  }
+
+  @Test
+  public void shouldRejectUnterminatedQuotes() {
+    CsvReader reader = new CsvReader(new StringReader("a,\"b\n"));
+    Assertions.assertThrows(IOException.class, reader::readRecord);
+  }
+
+}
@@ -0,0 +1,52 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.sixsprints.core.utils.CsvReader;
+import com.sixsprints.core.utils.CsvWriter;
+
+public class CsvWriterTest {
+
+  @Test
+  public void shouldQuoteOnlyWhenNeeded() throws IOException {
+    StringWriter out = new StringWriter();
+    try (CsvWriter writer = new CsvWriter(out)) {
+      writer.writeRecord(Arrays.asList("plain", null, 12, "a,b", "say \"hi\"", "two\nlines"));
+    }
+    assertThat(out.toString())
+        .isEqualTo("plain,,12,\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\"\r\n");
+  }
+
+  @Test
+  public void shouldKeepSpreadsheetsFromEvaluatingFormulas() throws IOException {
+    StringWriter out = new StringWriter();
+    try (CsvWriter writer = new CsvWriter(out)) {
+      writer.writeRecord(Arrays.asList("=1+1", "+cmd", "-2+3", "@SUM(A1)", "\tx", "a=b", -5, ""));
+    }
+    assertThat(out.toString()).isEqualTo("'=1+1,'+cmd,'-2+3,'@SUM(A1),'\tx,a=b,-5,\r\n");
+  }
+
+  @Test
+  public void shouldBeReadBackByTheReader() throws IOException {
+    List<String> record = List.of("", "x;y", "\"", "line\r\nbreak", "end");
+    StringWriter out = new StringWriter();
+    try (CsvWriter writer = new CsvWriter(out, ';')) {
+      writer.writeRecord(record);
+      writer.writeRecord(record);
+    }
+    try (CsvReader reader = new CsvReader(new StringReader(out.toString()), ';')) {
+      assertThat(reader.readRecord()).isEqualTo(record);
+      assertThat(reader.readRecord()).isEqualTo(record);
+      assertThat(reader.readRecord()).isNull();
+    }
+  }
+
+}
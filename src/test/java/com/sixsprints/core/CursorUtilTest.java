@@ -0,0 +1,58 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.sixsprints.core.utils.CursorUtil;
+
+public class CursorUtilTest {
+
+  private static final List<String> KEYS = List.of("name:ASC", "dateCreated:DESC", "id:DESC");
+
+  @Test
+  public void shouldEncodeAndDecodeCursor() {
+    Date date = new Date();
+    List<Object> values =
+        Arrays.asList("Name1", date, new Decimal128(new BigDecimal("10.50")), null, 12L);
+    List<String> keys = List.of("name:ASC", "date:ASC", "amount:ASC", "city:ASC", "id:DESC");
+    String cursor = CursorUtil.encode(keys, values);
+    assertThat(CursorUtil.decode(cursor, keys)).isEqualTo(values);
+  }
+
+  @Test
+  public void shouldRejectCursorForDifferentSort() {
+    String cursor = CursorUtil.encode(KEYS, Arrays.asList("Name1", 1L, "5f1d7f3e2a"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> {
+      CursorUtil.decode(cursor, List.of("name:DESC", "dateCreated:DESC", "id:DESC"));
+    });
+  }
+
+  @Test
+  public void shouldRejectCursorCarryingQueryOperators() {
+    String json = "{\"k\": [\"name:ASC\", \"dateCreated:DESC\", \"id:DESC\"],"
+        + " \"v\": [{\"$ne\": null}, [{\"$gt\": 0}], \"5f1d7f3e2a\"]}";
+    String cursor = Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> {
+      CursorUtil.decode(cursor, KEYS);
+    });
+  }
+
+  @Test
+  public void shouldRejectMalformedCursor() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> {
+      CursorUtil.decode("not-a-cursor", KEYS);
+    });
+  }
+
+}
@@ -0,0 +1,40 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.sixsprints.core.utils.DocumentDiffUtil;
+
+public class DocumentDiffUtilTest {
+
+  @Test
+  public void shouldSetAndUnsetOnlyTheChangedPaths() {
+    Document before = new Document("_id", "1").append("name", "Karan").append("age", 30)
+        .append("address", new Document("city", "Delhi").append("zip", "110001"))
+        .append("tags", List.of("a", "b"));
+    Document after = new Document("_id", "2").append("name", "Karan")
+        .append("address", new Document("city", "Mumbai").append("zip", "110001"))
+        .append("tags", List.of("a")).append("email", "k@x.com");
+
+    Update update = DocumentDiffUtil.diff(before, after, Set.of("_id"));
+
+    assertThat(update.getUpdateObject().get("$set", Document.class)).containsOnlyKeys(
+        "address.city", "tags", "email");
+    assertThat(update.getUpdateObject().get("$unset", Document.class)).containsOnlyKeys("age");
+  }
+
+  @Test
+  public void shouldReturnAnEmptyUpdateForEqualDocuments() {
+    Document before = new Document("name", "Karan").append("address", new Document("city", "Delhi"));
+    Document after = new Document("name", "Karan").append("address", new Document("city", "Delhi"));
+
+    assertThat(DocumentDiffUtil.isEmpty(DocumentDiffUtil.diff(before, after, Set.of()))).isTrue();
+  }
+
+}
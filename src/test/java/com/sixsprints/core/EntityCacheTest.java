@@ -0,0 +1,63 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import com.sixsprints.core.dto.CacheStats;
+import com.sixsprints.core.generic.read.EntityCache;
+
+public class EntityCacheTest {
+
+  private final AtomicLong clock = new AtomicLong(1000L);
+
+  @Test
+  public void shouldServeByIdAndSlugUntilExpiry() {
+    EntityCache cache = new EntityCache(10, 100L, clock::get);
+    cache.put("1", "USR001", new Document("name", "Name1"), cache.generation());
+
+    assertThat(cache.getById("1")).isEqualTo(new Document("name", "Name1"));
+    assertThat(cache.getBySlug("USR001")).isEqualTo(new Document("name", "Name1"));
+    clock.addAndGet(100L);
+    assertThat(cache.getById("1")).isNull();
+    assertThat(cache.getBySlug("USR001")).isNull();
+
+    CacheStats stats = cache.stats();
+    assertThat(stats.getHits()).isEqualTo(2);
+    assertThat(stats.getMisses()).isEqualTo(2);
+    assertThat(stats.getEvictions()).isEqualTo(1);
+    assertThat(stats.getSize()).isZero();
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsed() {
+    EntityCache cache = new EntityCache(2, 1000L, clock::get);
+    cache.put("1", "USR001", new Document(), cache.generation());
+    cache.put("2", "USR002", new Document(), cache.generation());
+    cache.getById("1");
+    cache.put("3", "USR003", new Document(), cache.generation());
+
+    assertThat(cache.getById("2")).isNull();
+    assertThat(cache.getBySlug("USR002")).isNull();
+    assertThat(cache.getById("1")).isNotNull();
+    assertThat(cache.getById("3")).isNotNull();
+  }
+
+  @Test
+  public void shouldNotCacheLoadsThatRacedAnInvalidation() {
+    EntityCache cache = new EntityCache(10, 1000L, clock::get);
+    long generation = cache.generation();
+    cache.invalidate("1", "USR001");
+    cache.put("1", "USR001", new Document("name", "stale"), generation);
+    assertThat(cache.getById("1")).isNull();
+
+    cache.put("1", "USR001", new Document("name", "fresh"), cache.generation());
+    cache.invalidate(null, "USR001");
+    assertThat(cache.getById("1")).isNull();
+    assertThat(cache.stats().getInvalidations()).isEqualTo(1);
+  }
+
+}
@@ -0,0 +1,184 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.sixsprints.core.dto.IndexAdvice;
+import com.sixsprints.core.generic.read.IndexAdvisor;
+import com.sixsprints.core.mock.domain.Note;
+import com.sixsprints.core.mock.domain.User;
+
+public class IndexAdvisorTest {
+
+  private final IndexAdvisor advisor = new IndexAdvisor();
+
+  private final List<IndexInfo> indexes = new ArrayList<>();
+
+  private final List<IndexDefinition> created = new ArrayList<>();
+
+  private MongoClient client;
+
+  private MongoTemplate mongo;
+
+  @BeforeEach
+  public void before() {
+    ReflectionTestUtils.setField(advisor, "enabled", true);
+    ReflectionTestUtils.setField(advisor, "maxCandidates", 200);
+    IndexOperations indexOps = new IndexOperations() {
+      @Override
+      public String createIndex(IndexDefinition indexDefinition) {
+        created.add(indexDefinition);
+        return "index" + created.size();
+      }
+
+      @Override
+      public void alterIndex(String name, IndexOptions options) {}
+
+      @Override
+      public void dropIndex(String name) {}
+
+      @Override
+      public void dropAllIndexes() {}
+
+      @Override
+      public List<IndexInfo> getIndexInfo() {
+        return indexes;
+      }
+    };
+    client = MongoClients.create("mongodb://localhost:1");
+    mongo = new MongoTemplate(client, "test") {
+      @Override
+      public IndexOperations indexOps(Class<?> entityClass) {
+        return indexOps;
+      }
+
+      @Override
+      public IndexOperations indexOps(String collectionName) {
+        return indexOps;
+      }
+    };
+  }
+
+  @AfterEach
+  public void after() {
+    client.close();
+  }
+
+  @Test
+  public void shouldOrderCandidateKeysByEqualitySortRange() {
+    advisor.observe(User.class, Criteria.where("roleSlug").is("R1").and("customId").gt(3)
+        .and("flag").in(true).and("email").regex("^a"), Sort.by(Direction.DESC, "name"));
+
+    List<IndexAdvice> advice = advisor.advise(mongo);
+
+    assertThat(advice).hasSize(1);
+    assertThat(advice.get(0).getCollection()).isEqualTo("user");
+    assertThat(advice.get(0).getKeys()).containsExactly(Map.entry("flag", 1),
+        Map.entry("roleSlug", 1), Map.entry("name", -1), Map.entry("customId", 1),
+        Map.entry("email", 1));
+    assertThat(advice.get(0).getCommand()).startsWith("mongo.indexOps(\"user\")");
+  }
+
+  @Test
+  public void shouldSkipCandidatesServedByAnExistingIndex() {
+    advisor.observe(User.class, Criteria.where("roleSlug").is("R1").and("flag").is(true),
+        Sort.by(Direction.DESC, "name").and(Sort.by(Direction.ASC, "email")));
+    index("flag", Direction.ASC, "roleSlug", Direction.DESC, "name", Direction.ASC, "email",
+        Direction.DESC);
+    assertThat(advisor.advise(mongo)).isEmpty();
+
+    indexes.clear();
+    index("flag", Direction.ASC, "roleSlug", Direction.ASC, "name", Direction.ASC, "email",
+        Direction.ASC);
+    assertThat(advisor.advise(mongo)).hasSize(1);
+
+    indexes.clear();
+    index("flag", Direction.ASC, "name", Direction.DESC, "roleSlug", Direction.ASC, "email",
+        Direction.ASC);
+    assertThat(advisor.advise(mongo)).hasSize(1);
+  }
+
+  @Test
+  public void shouldCountRepeatedReadsOnceAndSkipDuplicateIndexes() {
+    for (int i = 0; i < 3; i++) {
+      advisor.observe(User.class, Criteria.where("roleSlug").is("R" + i),
+          Sort.by(Direction.ASC, "name"));
+    }
+    advisor.observe(User.class, Criteria.where("flag").is(true), Sort.unsorted());
+    advisor.observe(User.class, Criteria.where("id").is("1"), Sort.unsorted());
+
+    List<IndexAdvice> advice = advisor.advise(mongo);
+    assertThat(advice).extracting(IndexAdvice::getObservations).containsExactly(3L, 1L);
+    assertThat(advice.get(0).getShare()).isEqualTo(0.75);
+
+    index("flag", Direction.DESC, "name", Direction.ASC);
+    List<IndexAdvice> toCreate = new ArrayList<>(advice);
+    toCreate.add(advice.get(0));
+    List<String> names = advisor.createIndexes(mongo, toCreate);
+
+    assertThat(names).containsExactly("index1");
+    assertThat(created).hasSize(1);
+    assertThat(created.get(0).getIndexKeys().keySet()).containsExactly("roleSlug", "name");
+  }
+
+  @Test
+  public void shouldAdvisePartialIndexesWithoutTheDeletedPredicateForSoftDeletableEntities() {
+    advisor.observe(Note.class, new Criteria().andOperator(Criteria.where("title").is("T1"),
+        Criteria.where("deleted").is(false)), Sort.by(Direction.ASC, "body"));
+    indexes.add(IndexInfo.indexInfoOf(new Document("key", new Document("title", 1))
+        .append("name", "title_other").append("partialFilterExpression",
+            new Document("body", new Document("$exists", true)))));
+
+    List<IndexAdvice> advice = advisor.advise(mongo, Note.class);
+
+    assertThat(advice).hasSize(1);
+    assertThat(advice.get(0).getKeys()).containsExactly(Map.entry("title", 1),
+        Map.entry("body", 1));
+    assertThat(advice.get(0).getPartialFilterExpression()).containsExactly(
+        Map.entry("deleted", false));
+    assertThat(advice.get(0).getCommand()).contains(".named(\"title_1_body_1_live\")");
+
+    advisor.createIndexes(mongo, advice);
+    assertThat(created).hasSize(1);
+    assertThat(created.get(0).getIndexOptions()).containsEntry("name", "title_1_body_1_live")
+        .containsEntry("partialFilterExpression", new Document("deleted", false));
+
+    indexes.add(IndexInfo.indexInfoOf(new Document("key",
+        new Document("title", 1).append("body", 1)).append("name", "title_1_body_1_live")
+        .append("partialFilterExpression", new Document("deleted", false))));
+    assertThat(advisor.advise(mongo, Note.class)).isEmpty();
+    assertThat(advisor.advise(mongo, User.class)).isEmpty();
+  }
+
+  private void index(Object... keys) {
+    List<IndexField> fields = new ArrayList<>();
+    LinkedHashMap<String, Direction> ordered = new LinkedHashMap<>();
+    for (int i = 0; i < keys.length; i += 2) {
+      ordered.put((String) keys[i], (Direction) keys[i + 1]);
+    }
+    ordered.forEach((key, direction) -> fields.add(IndexField.create(key, direction)));
+    indexes.add(new IndexInfo(fields, "existing" + indexes.size(), false, false, null));
+  }
+
+}
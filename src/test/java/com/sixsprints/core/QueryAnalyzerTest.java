@@ -0,0 +1,151 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.CollectionCallback;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.sixsprints.core.dto.QueryShapeStats;
+import com.sixsprints.core.dto.RequestContext;
+import com.sixsprints.core.generic.read.QueryAnalyzer;
+import com.sixsprints.core.mock.domain.User;
+import com.sixsprints.core.utils.ApplicationContext;
+
+public class QueryAnalyzerTest {
+
+  private static final Document PLAN = new Document("queryPlanner",
+      new Document("winningPlan",
+          new Document("stage", "SORT").append("inputStage", new Document("stage", "COLLSCAN"))))
+              .append("executionStats", new Document("totalDocsExamined", 100)
+                  .append("totalKeysExamined", 0).append("nReturned", 10));
+
+  private final List<Runnable> explains = new ArrayList<>();
+
+  private final QueryAnalyzer analyzer = new QueryAnalyzer() {
+    @Override
+    protected Executor explainExecutor() {
+      return explains::add;
+    }
+  };
+
+  private MongoClient client;
+
+  private MongoTemplate mongo;
+
+  @BeforeEach
+  public void before() {
+    client = MongoClients.create("mongodb://localhost:1");
+    mongo = new MongoTemplate(client, "test") {
+      @Override
+      @SuppressWarnings("unchecked")
+      public <T> T execute(Class<?> entityClass, CollectionCallback<T> action) {
+        return (T) PLAN;
+      }
+    };
+    ReflectionTestUtils.setField(analyzer, "enabled", true);
+    ReflectionTestUtils.setField(analyzer, "slowMillis", 100L);
+    ReflectionTestUtils.setField(analyzer, "sampleRate", 0.0);
+    ReflectionTestUtils.setField(analyzer, "maxShapes", 1000);
+  }
+
+  @AfterEach
+  public void after() {
+    client.close();
+    ApplicationContext.clear();
+  }
+
+  @Test
+  public void shouldReduceQueriesToShapesWithoutValues() {
+    analyzer.record(mongo, User.class, query("a", 3, "R1").with(Sort.by("name")), millis(5));
+    analyzer.record(mongo, User.class, query("b", 7, "R2").with(Sort.by("name")), millis(7));
+    analyzer.record(mongo, User.class,
+        query("c", 9, "R3").with(Sort.by(Sort.Direction.DESC, "name")), millis(1));
+
+    List<QueryShapeStats> shapes = analyzer.snapshot();
+
+    assertThat(shapes).hasSize(2);
+    QueryShapeStats shape = shapes.get(0);
+    assertThat(shape.getCollection()).isEqualTo("user");
+    assertThat(shape.getFilterShape()).isEqualTo("{\"name\": \"?\", \"customId\": {\"$gt\": \"?\"}, "
+        + "\"$or\": [{\"email\": \"?\"}, {\"roleSlug\": {\"$in\": \"?\"}}]}");
+    assertThat(shape.getSortShape()).isEqualTo("{\"name\": 1}");
+    assertThat(shape.getExecutions()).isEqualTo(2);
+    assertThat(shape.getTotalMillis()).isEqualTo(12);
+    assertThat(shape.getMaxMillis()).isEqualTo(7);
+    assertThat(shapes.get(1).getSortShape()).isEqualTo("{\"name\": -1}");
+    assertThat(analyzer.snapshot("user")).hasSize(2);
+    assertThat(analyzer.snapshot("role")).isEmpty();
+  }
+
+  @Test
+  public void shouldExplainANewShapeOnceAndKeepThePlan() {
+    ApplicationContext.setCurrentRequest(RequestContext.builder().requestId("req-1").build());
+    analyzer.record(mongo, User.class, query("a", 3, "R1"), millis(5));
+    analyzer.record(mongo, User.class, query("b", 4, "R2"), millis(500));
+
+    assertThat(explains).hasSize(1);
+    assertThat(analyzer.snapshot().get(0).getExplains()).isZero();
+    explains.remove(0).run();
+
+    QueryShapeStats stats = analyzer.snapshot().get(0);
+    assertThat(stats.getExplains()).isEqualTo(1);
+    assertThat(stats.getDocsExamined()).isEqualTo(100);
+    assertThat(stats.getReturned()).isEqualTo(10);
+    assertThat(stats.getDocsExaminedPerReturned()).isEqualTo(10.0);
+    assertThat(stats.getWinningPlan()).isEqualTo("SORT > COLLSCAN");
+    assertThat(stats.isCollectionScan()).isTrue();
+    assertThat(stats.isInMemorySort()).isTrue();
+    assertThat(stats.getLastRequestId()).isEqualTo("req-1");
+    assertThat(stats.getLastExplainedAt()).isNotNull();
+
+    ReflectionTestUtils.setField(analyzer, "sampleRate", 1.0);
+    analyzer.record(mongo, User.class, query("c", 5, "R3"), millis(500));
+    assertThat(explains).isEmpty();
+  }
+
+  @Test
+  public void shouldExplainASlowOrSampledExecutionOnceTheShapeIsDue() {
+    analyzer.record(mongo, User.class, query("a", 3, "R1"), millis(5));
+    explains.remove(0).run();
+    ReflectionTestUtils.setField(analyzer, "enabled", false);
+    analyzer.record(mongo, User.class, query("b", 3, "R1"), millis(500));
+    assertThat(explains).isEmpty();
+    assertThat(analyzer.snapshot().get(0).getExecutions()).isEqualTo(1);
+
+    ReflectionTestUtils.setField(analyzer, "enabled", true);
+    ReflectionTestUtils.setField(analyzer, "maxShapes", 1);
+    analyzer.record(mongo, User.class, new Query(Criteria.where("flag").is(true)), millis(5));
+    assertThat(analyzer.snapshot()).hasSize(1);
+    assertThat(explains).isEmpty();
+
+    analyzer.reset();
+    analyzer.record(mongo, User.class, query("a", 3, "R1"), millis(5));
+    analyzer.record(mongo, User.class, query("b", 3, "R1"), millis(500));
+    assertThat(explains).hasSize(1);
+  }
+
+  private static Query query(String name, int customId, String roleSlug) {
+    return new Query(Criteria.where("name").is(name).and("customId").gt(customId).orOperator(
+        Criteria.where("email").is(name + "@gmail.com"), Criteria.where("roleSlug").in(roleSlug)));
+  }
+
+  private static long millis(long millis) {
+    return TimeUnit.MILLISECONDS.toNanos(millis);
+  }
+
+}
@@ -0,0 +1,78 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntToLongFunction;
+
+import org.junit.jupiter.api.Test;
+
+import com.sixsprints.core.generic.SequenceBlockAllocator;
+
+public class SequenceBlockAllocatorTest {
+
+  private final AtomicLong counter = new AtomicLong();
+
+  private final List<Integer> reservations = new CopyOnWriteArrayList<>();
+
+  private final IntToLongFunction store = size -> {
+    reservations.add(size);
+    return counter.addAndGet(size);
+  };
+
+  @Test
+  public void shouldServeValuesFromReservedBlocks() {
+    SequenceBlockAllocator allocator = new SequenceBlockAllocator();
+
+    assertThat(allocator.allocate("user", 1, 10, store)).isEqualTo(1L);
+    assertThat(allocator.allocate("user", 1, 10, store)).isEqualTo(2L);
+    assertThat(allocator.allocate("user", 3, 10, store)).isEqualTo(5L);
+    assertThat(allocator.allocate("user", 6, 10, store)).isEqualTo(16L);
+    assertThat(allocator.allocate("user", 25, 10, store)).isEqualTo(45L);
+    assertThat(reservations).containsExactly(10, 10, 25);
+  }
+
+  @Test
+  public void shouldKeepSeparateBlocksPerKey() {
+    SequenceBlockAllocator allocator = new SequenceBlockAllocator();
+
+    assertThat(allocator.allocate("tenant-a/customsequences/user", 1, 10, store)).isEqualTo(1L);
+    assertThat(allocator.allocate("tenant-b/customsequences/user", 1, 10, store)).isEqualTo(11L);
+    assertThat(allocator.allocate("tenant-a/customsequences/user", 1, 10, store)).isEqualTo(2L);
+    assertThat(reservations).containsExactly(10, 10);
+  }
+
+  @Test
+  public void shouldHandOutUniqueValuesToConcurrentCallers() throws Exception {
+    SequenceBlockAllocator allocator = new SequenceBlockAllocator();
+    Set<Long> values = ConcurrentHashMap.newKeySet();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new CopyOnWriteArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < 500; j++) {
+            values.add(allocator.allocate("user", 1, 50, store));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(values).hasSize(4000);
+    assertThat(reservations).hasSize(80);
+  }
+
+}
@@ -0,0 +1,43 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.sixsprints.core.utils.SnowflakeIdGenerator;
+
+public class SnowflakeIdGeneratorTest {
+
+  private final AtomicLong now = new AtomicLong(1735689600000L);
+
+  @Test
+  public void shouldGenerateIncreasingIdsWhenTheCounterOverflowsOrTheClockGoesBack() {
+    SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, now::get);
+    List<Long> ids = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      ids.add(generator.nextId());
+    }
+    now.addAndGet(-10);
+    ids.add(generator.nextId());
+    now.addAndGet(100);
+    ids.add(generator.nextId());
+
+    assertThat(ids).isSorted().doesNotHaveDuplicates();
+    assertThat(ids).allMatch(id -> ((id >>> 12) & SnowflakeIdGenerator.MAX_NODE_ID) == 7);
+  }
+
+  @Test
+  public void shouldNotCollideAcrossNodes() {
+    SnowflakeIdGenerator first = new SnowflakeIdGenerator(1, now::get);
+    SnowflakeIdGenerator second = new SnowflakeIdGenerator(2, now::get);
+
+    assertThat(first.nextId()).isNotEqualTo(second.nextId());
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024));
+  }
+
+}
@@ -0,0 +1,75 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.util.TypeInformation;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.sixsprints.core.config.SoftDeleteIndexCreator;
+import com.sixsprints.core.mock.domain.Note;
+import com.sixsprints.core.mock.domain.User;
+
+public class SoftDeleteIndexCreatorTest {
+
+  private MongoClient client;
+
+  private SoftDeleteIndexCreator creator;
+
+  @BeforeEach
+  public void before() {
+    client = MongoClients.create("mongodb://localhost:1");
+    MongoMappingContext context = new MongoMappingContext();
+    MongoTemplate template = new MongoTemplate(new SimpleMongoClientDatabaseFactory(client, "test"),
+        new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context));
+    creator = new SoftDeleteIndexCreator(context, template, true);
+  }
+
+  @AfterEach
+  public void after() {
+    client.close();
+  }
+
+  @Test
+  public void shouldReplaceNonUniqueIndexesOfSoftDeletableEntitiesWithLiveOnes() {
+    List<IndexDefinition> indexes = resolve(Note.class);
+
+    assertThat(indexes).extracting(index -> index.getIndexOptions().getString("name"))
+        .containsExactly("title_live", "slug", "sequence", "dateDeleted_tombstones");
+    assertThat(indexes.get(0).getIndexKeys()).isEqualTo(new Document("title", 1));
+    assertThat(indexes.get(0).getIndexOptions().get("partialFilterExpression"))
+        .isEqualTo(new Document("deleted", false));
+    assertThat(indexes.get(1).getIndexOptions().getBoolean("unique")).isTrue();
+    assertThat(indexes.get(1).getIndexOptions()).doesNotContainKey("partialFilterExpression");
+    assertThat(indexes.get(3).getIndexOptions().get("partialFilterExpression"))
+        .isEqualTo(new Document("deleted", true));
+  }
+
+  @Test
+  public void shouldLeaveOtherEntitiesAndUniqueIndexesWhole() {
+    List<IndexDefinition> indexes = resolve(User.class);
+
+    assertThat(indexes).extracting(index -> index.getIndexOptions().getString("name"))
+        .contains("email", "roleSlug").doesNotContain("roleSlug_live");
+    assertThat(indexes)
+        .allMatch(index -> !index.getIndexOptions().containsKey("partialFilterExpression"));
+  }
+
+  private List<IndexDefinition> resolve(Class<?> type) {
+    return ReflectionTestUtils.invokeMethod(creator, "resolveIndexFor", TypeInformation.of(type));
+  }
+
+}
@@ -0,0 +1,144 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.sixsprints.core.dto.RequestContext;
+import com.sixsprints.core.dto.WriteBehindStats;
+import com.sixsprints.core.enums.BackpressurePolicy;
+import com.sixsprints.core.generic.create.WriteBehindBuffer;
+import com.sixsprints.core.utils.ApplicationContext;
+
+public class WriteBehindBufferTest {
+
+  private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+  private final Function<List<String>, List<Throwable>> writer = entities -> {
+    batches.add(entities);
+    List<Throwable> failures = new ArrayList<>();
+    entities.forEach(entity -> failures
+        .add(entity.equals("bad") ? new IllegalArgumentException(entity) : null));
+    return failures;
+  };
+
+  @Test
+  public void shouldWriteQueuedEntitiesInBatches() {
+    WriteBehindBuffer<String> buffer =
+        new WriteBehindBuffer<>("test", 100, 3, 200L, BackpressurePolicy.BLOCK, writer);
+    List<CompletableFuture<String>> futures = new ArrayList<>();
+    for (String entity : List.of("a", "b", "c", "d", "bad")) {
+      futures.add(buffer.submit(entity));
+    }
+
+    assertThat(futures.get(0).join()).isEqualTo("a");
+    assertThat(futures.get(3).join()).isEqualTo("d");
+    Assertions.assertThrows(CompletionException.class, () -> futures.get(4).join());
+    assertThat(batches).containsExactly(List.of("a", "b", "c"), List.of("d", "bad"));
+
+    WriteBehindStats stats = buffer.stats();
+    assertThat(stats.getWritten()).isEqualTo(4);
+    assertThat(stats.getFailed()).isEqualTo(1);
+    assertThat(stats.getBatches()).isEqualTo(2);
+    assertThat(stats.getMaxBatchSize()).isEqualTo(3);
+    buffer.close(1000L);
+  }
+
+  @Test
+  public void shouldApplyBackpressureAndFlushOnClose() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    Function<List<String>, List<Throwable>> slowWriter = entities -> {
+      try {
+        release.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      return writer.apply(entities);
+    };
+    WriteBehindBuffer<String> buffer =
+        new WriteBehindBuffer<>("drop", 1, 1, 0L, BackpressurePolicy.DROP, slowWriter);
+    CompletableFuture<String> first = buffer.submit("a");
+    while (buffer.stats().getQueueDepth() > 0) {
+      Thread.sleep(5);
+    }
+    CompletableFuture<String> queued = buffer.submit("b");
+    CompletableFuture<String> dropped = buffer.submit("c");
+
+    CompletionException ex = Assertions.assertThrows(CompletionException.class, dropped::join);
+    assertThat(ex.getCause()).isInstanceOf(RejectedExecutionException.class);
+    release.countDown();
+    buffer.close(1000L);
+
+    assertThat(first.join()).isEqualTo("a");
+    assertThat(queued.join()).isEqualTo("b");
+    assertThat(buffer.stats().getDropped()).isEqualTo(1);
+    assertThat(buffer.submit("d")).isCompletedExceptionally();
+    assertThat(batches).containsExactly(List.of("a"), List.of("b"));
+  }
+
+  @Test
+  public void shouldFailEntitiesStillQueuedWhenClosed() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    Function<List<String>, List<Throwable>> blockedWriter = entities -> {
+      try {
+        release.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      return writer.apply(entities);
+    };
+    WriteBehindBuffer<String> buffer =
+        new WriteBehindBuffer<>("close", 1, 1, 0L, BackpressurePolicy.BLOCK, blockedWriter);
+    CompletableFuture<String> first = buffer.submit("a");
+    while (buffer.stats().getQueueDepth() > 0) {
+      Thread.sleep(5);
+    }
+    CompletableFuture<String> queued = buffer.submit("b");
+    CompletableFuture<CompletableFuture<String>> blocked =
+        CompletableFuture.supplyAsync(() -> buffer.submit("c"));
+
+    buffer.close(50L);
+
+    CompletionException ex = Assertions.assertThrows(CompletionException.class, queued::join);
+    assertThat(ex.getCause()).isInstanceOf(RejectedExecutionException.class);
+    CompletableFuture<String> third = blocked.get(5, TimeUnit.SECONDS);
+    ex = Assertions.assertThrows(CompletionException.class, third::join);
+    assertThat(ex.getCause()).isInstanceOf(RejectedExecutionException.class);
+    release.countDown();
+    assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("a");
+    assertThat(batches).containsExactly(List.of("a"));
+  }
+
+  @Test
+  public void shouldRunAfterWriteUnderTheSubmittersContext() {
+    List<String> seen = new CopyOnWriteArrayList<>();
+    WriteBehindBuffer<String> buffer = new WriteBehindBuffer<>("context", 100, 10, 50L,
+        BackpressurePolicy.BLOCK, writer,
+        entity -> seen.add(entity + ":" + ApplicationContext.getCurrentRequest().getRequestId()));
+    try {
+      ApplicationContext.setCurrentRequest(RequestContext.builder().requestId("req-1").build());
+      CompletableFuture<String> first = buffer.submit("a");
+      ApplicationContext.setCurrentRequest(RequestContext.builder().requestId("req-2").build());
+      CompletableFuture<String> second = buffer.submit("b");
+
+      assertThat(first.join()).isEqualTo("a");
+      assertThat(second.join()).isEqualTo("b");
+      assertThat(seen).containsExactly("a:req-1", "b:req-2");
+    } finally {
+      ApplicationContext.clear();
+      buffer.close(1000L);
+    }
+  }
+
+}
@@ -1,9 +1,15 @@
 package com.sixsprints.core.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
@@ -11,6 +17,8 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sixsprints.core.BaseControllerTest;
+import com.sixsprints.core.dto.FilterRequestDto;
+import com.sixsprints.core.mock.controller.UserController;
 import com.sixsprints.core.mock.dto.UserDto;
 
 public class UserControllerTest extends BaseControllerTest {
@@ -21,6 +29,9 @@ public class UserControllerTest extends BaseControllerTest {
   @Autowired
   private ObjectMapper mapper;
 
+  @Autowired
+  private UserController userController;
+
   @Test
   public void shouldCreateUser() throws Exception {
     String email = "kgujral@gmail.com";
@@ -38,6 +49,23 @@ public class UserControllerTest extends BaseControllerTest {
       .andExpect(MockMvcResultMatchers.jsonPath("$.data.email", CoreMatchers.is(email)));
   }
 
+  @Test
+  public void shouldDeriveTheSearchProjectionFromTheSearchDto() {
+    List<String> fields = ReflectionTestUtils
+        .invokeMethod(AopTestUtils.getUltimateTargetObject(userController), "searchFields");
+    assertThat(fields).containsExactly("email", "name", "flag", "address", "dateCreated",
+        "roleSlug", "gender", "customId");
+  }
+
+  @Test
+  public void shouldDeriveTheExportColumnsFromTheSearchDto() {
+    List<String> columns =
+        ReflectionTestUtils.invokeMethod(AopTestUtils.getUltimateTargetObject(userController),
+            "exportColumns", FilterRequestDto.builder().build());
+    assertThat(columns).containsExactly("email", "name", "flag", "address.city", "address.state",
+        "address.country", "dateCreated", "roleSlug", "roleGroup", "gender", "customId");
+  }
+
   private String userJson(String email, String name) throws JsonProcessingException {
     return mapper.writeValueAsString(userDto(email, name));
   }
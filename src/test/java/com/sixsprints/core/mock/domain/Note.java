@@ -0,0 +1,35 @@
+package com.sixsprints.core.mock.domain;
+
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.sixsprints.core.annotation.SoftDeletable;
+import com.sixsprints.core.domain.AbstractMongoEntity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import lombok.experimental.FieldNameConstants;
+import lombok.experimental.SuperBuilder;
+
+@Document
+@SoftDeletable
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+@ToString(callSuper = true)
+@FieldNameConstants
+public class Note extends AbstractMongoEntity {
+
+  private static final long serialVersionUID = 2218637524309577380L;
+
+  @Indexed
+  private String title;
+
+  private String body;
+
+}
@@ -0,0 +1,8 @@
+package com.sixsprints.core.mock.repository;
+
+import com.sixsprints.core.mock.domain.Note;
+import com.sixsprints.core.repository.GenericCrudRepository;
+
+public interface NoteRepository extends GenericCrudRepository<Note> {
+
+}
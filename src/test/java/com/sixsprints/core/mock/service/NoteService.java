@@ -0,0 +1,8 @@
+package com.sixsprints.core.mock.service;
+
+import com.sixsprints.core.mock.domain.Note;
+import com.sixsprints.core.service.GenericCrudService;
+
+public interface NoteService extends GenericCrudService<Note> {
+
+}
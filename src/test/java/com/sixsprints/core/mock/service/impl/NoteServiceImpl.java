@@ -0,0 +1,54 @@
+package com.sixsprints.core.mock.service.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import com.sixsprints.core.dto.MetaData;
+import com.sixsprints.core.mock.domain.Note;
+import com.sixsprints.core.mock.repository.NoteRepository;
+import com.sixsprints.core.mock.service.NoteService;
+import com.sixsprints.core.service.AbstractCrudService;
+import lombok.Getter;
+
+@Service
+public class NoteServiceImpl extends AbstractCrudService<Note> implements NoteService {
+
+  @Autowired
+  private NoteRepository noteRepository;
+
+  @Getter
+  private final List<Note> deletedNotes = new CopyOnWriteArrayList<>();
+
+  @Override
+  protected NoteRepository repository() {
+    return noteRepository;
+  }
+
+  @Override
+  protected MetaData<Note> metaData() {
+    return MetaData.<Note>builder().classType(Note.class).build();
+  }
+
+  @Override
+  protected Note findDuplicate(Note entity) {
+    return entity.getSlug() == null ? null : noteRepository.findBySlug(entity.getSlug());
+  }
+
+  @Override
+  protected boolean deleteHooks() {
+    return true;
+  }
+
+  @Override
+  protected Collection<String> deleteHookFields() {
+    return List.of(Note.Fields.title);
+  }
+
+  @Override
+  protected void postDelete(Note entity) {
+    deletedNotes.add(entity);
+  }
+
+}
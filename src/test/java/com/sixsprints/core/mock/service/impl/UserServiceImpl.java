@@ -1,5 +1,7 @@
 package com.sixsprints.core.mock.service.impl;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import com.sixsprints.core.dto.MetaData;
@@ -14,6 +16,10 @@ public class UserServiceImpl extends AbstractCrudService<User> implements UserSe
   @Autowired
   private UserRepository userRepository;
 
+  private boolean cacheEnabled;
+
+  private String rejectedName;
+
   @Override
   protected UserRepository repository() {
     return userRepository;
@@ -36,4 +42,18 @@ public class UserServiceImpl extends AbstractCrudService<User> implements UserSe
     }
   }
 
+  @Override
+  protected List<String> checkValidityPreUpdate(User entity) {
+    List<String> errors = new ArrayList<>();
+    if (rejectedName != null && rejectedName.equals(entity.getName())) {
+      errors.add("name " + rejectedName + " is not allowed");
+    }
+    return errors;
+  }
+
+  @Override
+  protected boolean cacheEnabled() {
+    return cacheEnabled;
+  }
+
 }
@@ -0,0 +1,143 @@
+package com.sixsprints.core.service;
+
+import static org.assertj.core.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.AopTestUtils;
+import com.sixsprints.core.ApplicationTests;
+import com.sixsprints.core.config.SoftDeleteBackfill;
+import com.sixsprints.core.dto.BulkResult;
+import com.sixsprints.core.dto.BulkRowResult;
+import com.sixsprints.core.dto.DeleteProgress;
+import com.sixsprints.core.dto.FilterRequestDto;
+import com.sixsprints.core.enums.UpdateAction;
+import com.sixsprints.core.exception.EntityAlreadyExistsException;
+import com.sixsprints.core.exception.EntityInvalidException;
+import com.sixsprints.core.mock.domain.Note;
+import com.sixsprints.core.mock.service.NoteService;
+import com.sixsprints.core.mock.service.impl.NoteServiceImpl;
+
+public class NoteServiceTest extends ApplicationTests {
+
+  @Autowired
+  private NoteService noteService;
+
+  @Autowired
+  private MongoOperations mongo;
+
+  @Autowired
+  private SoftDeleteBackfill softDeleteBackfill;
+
+  @Test
+  public void shouldHideSoftDeletedNotesFromReads()
+      throws EntityAlreadyExistsException, EntityInvalidException {
+    List<Note> notes = new ArrayList<>();
+    for (int i = 1; i <= 4; i++) {
+      notes.add(noteService.insertOne(note(i)));
+    }
+    assertThat(notes.get(0).getDeleted()).isFalse();
+
+    assertThat(noteService.deleteOneBySlug(notes.get(0).getSlug())).isEqualTo(1);
+    assertThat(noteService.deleteOneBySlug(notes.get(0).getSlug())).isEqualTo(0);
+    assertThat(noteService.bulkDeleteByCriteria(Criteria.where("title").is("Title2")))
+        .isEqualTo(1);
+
+    assertThat(noteService.findOneById(notes.get(0).getId())).isEmpty();
+    assertThat(noteService.findOneBySlug(notes.get(1).getSlug())).isEmpty();
+    assertThat(noteService.findAllList()).extracting(Note::getTitle)
+        .containsExactlyInAnyOrder("Title3", "Title4");
+    assertThat(noteService.findAllBySlugs(List.of(notes.get(0).getSlug(), notes.get(2).getSlug())))
+        .containsOnlyKeys(notes.get(2).getSlug());
+    assertThat(noteService.filterByFilterRequestDto(FilterRequestDto.builder().page(0).size(10)
+        .build()).getTotalElements()).isEqualTo(2);
+
+    Document tombstone = mongo.findOne(
+        Query.query(Criteria.where("_id").is(notes.get(0).getId())), Document.class, "note");
+    assertThat(tombstone.getBoolean("deleted")).isTrue();
+    assertThat(tombstone.getLong("dateDeleted")).isNotNull();
+  }
+
+  @Test
+  public void shouldPurgeOldTombstonesOnly()
+      throws EntityAlreadyExistsException, EntityInvalidException {
+    for (int i = 1; i <= 5; i++) {
+      noteService.insertOne(note(i));
+    }
+    noteService.bulkDeleteByCriteria(Criteria.where("title").in("Title1", "Title2", "Title3"));
+    long cutoff = System.currentTimeMillis() + 1;
+    noteService.bulkDeleteByCriteria(Criteria.where("title").is("Title4"));
+    mongo.updateFirst(Query.query(Criteria.where("title").is("Title4")),
+        new Update().set("dateDeleted", cutoff + 1000),
+        Note.class);
+
+    DeleteProgress purged = noteService.purgeDeleted(cutoff, null);
+
+    assertThat(purged.getDeleted()).isEqualTo(3);
+    assertThat(purged.isComplete()).isTrue();
+    assertThat(mongo.count(new Query(), Note.class)).isEqualTo(2);
+    assertThat(noteService.findAllList()).extracting(Note::getTitle).containsExactly("Title5");
+  }
+
+  @Test
+  public void shouldHandDeleteHooksOnlyTheDeclaredFields()
+      throws EntityAlreadyExistsException, EntityInvalidException {
+    NoteServiceImpl target = AopTestUtils.getUltimateTargetObject(noteService);
+    target.getDeletedNotes().clear();
+    Note note = noteService.insertOne(note(1));
+
+    assertThat(noteService.deleteOneById(note.getId())).isEqualTo(1);
+    assertThat(noteService.deleteOneById(note.getId())).isEqualTo(0);
+
+    assertThat(target.getDeletedNotes()).hasSize(1);
+    Note deleted = target.getDeletedNotes().get(0);
+    assertThat(deleted.getId()).isEqualTo(note.getId());
+    assertThat(deleted.getSlug()).isEqualTo(note.getSlug());
+    assertThat(deleted.getTitle()).isEqualTo("Title1");
+    assertThat(deleted.getBody()).isNull();
+  }
+
+  @Test
+  public void shouldNotUpsertOntoTombstones()
+      throws EntityAlreadyExistsException, EntityInvalidException {
+    Note note = noteService.insertOne(note(1));
+    noteService.deleteOneBySlug(note.getSlug());
+    Note again = note(2);
+    again.setSlug(note.getSlug());
+
+    BulkResult<Note> result = noteService.bulkUpsertBatched(List.of(again));
+
+    assertThat(result.getRows()).extracting(BulkRowResult::getAction)
+        .containsExactly(UpdateAction.INVALID);
+    assertThat(result.getRows().get(0).getErrors().get(0)).contains(note.getSlug());
+    assertThatThrownBy(() -> noteService.upsertOne(again))
+        .isInstanceOf(EntityInvalidException.class);
+    Document tombstone = mongo.findOne(
+        Query.query(Criteria.where("_id").is(note.getId())), Document.class, "note");
+    assertThat(tombstone.getBoolean("deleted")).isTrue();
+    assertThat(tombstone.getString("title")).isEqualTo("Title1");
+    assertThat(noteService.findAllList()).isEmpty();
+  }
+
+  @Test
+  public void shouldBackfillLegacyNotes() {
+    mongo.insert(new Document("title", "Legacy"), "note");
+    assertThat(noteService.findAllList()).isEmpty();
+
+    assertThat(softDeleteBackfill.backfill()).isEqualTo(1);
+
+    assertThat(noteService.findAllList()).extracting(Note::getTitle).containsExactly("Legacy");
+    assertThat(softDeleteBackfill.backfill()).isZero();
+  }
+
+  private Note note(int i) {
+    return Note.builder().title("Title" + i).body("Body" + i).build();
+  }
+
+}
@@ -1,23 +1,54 @@
 package com.sixsprints.core.service;
 
 import static org.assertj.core.api.Assertions.*;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition.TextIndexDefinitionBuilder;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.sixsprints.core.ApplicationTests;
+import com.sixsprints.core.dto.BulkResult;
+import com.sixsprints.core.dto.BulkRowResult;
+import com.sixsprints.core.dto.DeleteProgress;
+import com.sixsprints.core.dto.FieldOperation;
 import com.sixsprints.core.dto.FilterRequestDto;
+import com.sixsprints.core.dto.FilterResultPage;
+import com.sixsprints.core.dto.ImportRowReport;
+import com.sixsprints.core.dto.ImportSummary;
 import com.sixsprints.core.dto.filter.ColumnFilter;
 import com.sixsprints.core.dto.filter.DateColumnFilter;
+import com.sixsprints.core.dto.filter.SearchColumnFilter;
 import com.sixsprints.core.dto.filter.SetColumnFilter;
+import com.sixsprints.core.dto.filter.SortModel;
+import com.sixsprints.core.enums.CountStrategy;
+import com.sixsprints.core.enums.FieldOperator;
+import com.sixsprints.core.enums.ImportOperation;
+import com.sixsprints.core.enums.PaginationMode;
+import com.sixsprints.core.enums.SearchStrategy;
+import com.sixsprints.core.enums.UpdateAction;
+import com.sixsprints.core.enums.UploadErrorType;
+import com.sixsprints.core.exception.BaseRuntimeException;
 import com.sixsprints.core.exception.EntityAlreadyExistsException;
+import com.sixsprints.core.exception.EntityConflictException;
 import com.sixsprints.core.exception.EntityInvalidException;
+import com.sixsprints.core.exception.EntityNotFoundException;
 import com.sixsprints.core.mock.domain.Role;
 import com.sixsprints.core.mock.domain.User;
 import com.sixsprints.core.mock.domain.embedded.Address;
@@ -70,6 +101,257 @@ public class UserServiceTest extends ApplicationTests {
     }
   }
 
+  @Test
+  public void shouldBulkInsertInBatchesReportingFailedRows()
+      throws EntityAlreadyExistsException, EntityInvalidException {
+    userService.insertOne(user(1));
+
+    List<User> list = List.of(user(1), user(2), user(3), user(2));
+    BulkResult<User> result = userService.bulkInsertBatched(list);
+
+    assertThat(result.getRows()).extracting(BulkRowResult::getAction).containsExactly(
+        UpdateAction.INVALID, UpdateAction.CREATE, UpdateAction.CREATE, UpdateAction.INVALID);
+    assertThat(result.getWritten()).extracting(User::getName).containsExactly("Name2", "Name3");
+    assertThat(result.getWritten()).allMatch(user -> user.getId() != null
+        && user.getSlug() != null && user.getDateCreated() != null);
+    assertThat(userService.findAllList()).hasSize(3);
+  }
+
+  @Test
+  public void shouldReportTheLaterRowOfADuplicateWithinTheBatch() {
+    User bySlug = user(3);
+    bySlug.setSlug("USR-SAME");
+    User sameSlug = user(4);
+    sameSlug.setSlug("USR-SAME");
+
+    BulkResult<User> result =
+        userService.bulkInsertBatched(List.of(user(1), user(2), user(1), bySlug, sameSlug));
+
+    assertThat(result.getRows()).extracting(BulkRowResult::getAction).containsExactly(
+        UpdateAction.CREATE, UpdateAction.CREATE, UpdateAction.INVALID, UpdateAction.CREATE,
+        UpdateAction.INVALID);
+    assertThat(result.getRows().get(2).getErrors().get(0)).contains("row 0");
+    assertThat(result.getRows().get(4).getErrors().get(0)).contains("row 3");
+    assertThat(userService.findAllList()).extracting(User::getName)
+        .containsExactlyInAnyOrder("Name1", "Name2", "Name3");
+  }
+
+  @Test
+  public void shouldResolveDuplicatesOfAChunkByUniqueIndexesAndSlug()
+      throws EntityAlreadyExistsException, EntityInvalidException {
+    User first = userService.insertOne(user(1));
+    User second = userService.insertOne(user(2));
+    Object target = AopTestUtils.getUltimateTargetObject(userService);
+
+    List<List<String>> keys = ReflectionTestUtils.invokeMethod(target, "duplicateKeys");
+    assertThat(keys).containsExactly(List.of("email"), List.of("slug"));
+
+    User bySlug = User.builder().slug(second.getSlug()).email("other@gmail.com").build();
+    List<User> duplicates = ReflectionTestUtils.invokeMethod(target, "findDuplicates",
+        List.of(user(1), bySlug, user(3)));
+    assertThat(duplicates).extracting(user -> user == null ? null : user.getId())
+        .containsExactly(first.getId(), second.getId(), null);
+  }
+
+  @Test
+  public void shouldBulkUpsertInBatchesReportingEachRow()
+      throws EntityAlreadyExistsException, EntityInvalidException {
+    User existing = userService.insertOne(user(1));
+    User unchanged = userService.insertOne(user(2));
+
+    User changed = user(1);
+    changed.setName("Changed");
+    List<User> list = List.of(changed, user(2), user(3));
+    BulkResult<User> result = userService.bulkUpsertBatched(list);
+
+    assertThat(result.getRows()).extracting(BulkRowResult::getAction)
+        .containsExactly(UpdateAction.UPDATE, UpdateAction.IGNORE, UpdateAction.CREATE);
+    assertThat(result.getRows().get(0).getId()).isEqualTo(existing.getId());
+    assertThat(result.getRows().get(1).getId()).isEqualTo(unchanged.getId());
+    assertThat(result.getWritten()).extracting(User::getName).containsExactly("Name3", "Changed");
+    User updated = userService.findOneById(existing.getId()).orElseThrow();
+    assertThat(updated.getName()).isEqualTo("Changed");
+    assertThat(updated.getSlug()).isEqualTo(existing.getSlug());
+    assertThat(userService.findAllList()).hasSize(3);
+  }
+
+  @Test
+  public void shouldKeepOnlyTheLastRowOfAChunkTargetingTheSameDocument()
+      throws EntityAlreadyExistsException, EntityInvalidException {
+    User existing = userService.insertOne(user(1));
+    List<User> list = new ArrayList<>();
+    for (String suffix : List.of("A", "B")) {
+      User created = user(3);
+      created.setName("New" + suffix);
+      User changed = user(1);
+      changed.setName("Changed" + suffix);
+      list.add(created);
+      list.add(changed);
+    }
+
+    BulkResult<User> result = userService.bulkUpsertBatched(list);
+
+    assertThat(result.getRows()).extracting(BulkRowResult::getAction).containsExactly(
+        UpdateAction.INVALID, UpdateAction.INVALID, UpdateAction.CREATE, UpdateAction.UPDATE);
+    assertThat(result.getRows().get(0).getErrors().get(0)).contains("row 2");
+    assertThat(result.getRows().get(1).getErrors().get(0)).contains("row 3");
+    assertThat(userService.findOneById(existing.getId()).orElseThrow().getName())
+        .isEqualTo("ChangedB");
+    assertThat(userService.findAllList()).extracting(User::getName)
+        .containsExactlyInAnyOrder("ChangedB", "NewB");
+  }
+
+  @Test
+  public void shouldPatchAtomicallyReturningTheUpdatedDocument() throws Exception {
+    User saved = userService.insertOne(user(1));
+    Object target = AopTestUtils.getUltimateTargetObject(userService);
+    ReflectionTestUtils.setField(target, "atomicPatch", true);
+    try {
+      User patch = User.builder().name("Patched").build();
+      User updated = userService.patchUpdateOneById(saved.getId(), patch, "name");
+
+      assertThat(updated.getName()).isEqualTo("Patched");
+      assertThat(updated.getEmail()).isEqualTo(saved.getEmail());
+      assertThat(updated.getSlug()).isEqualTo(saved.getSlug());
+      assertThatThrownBy(() -> userService.patchUpdateOneBySlug("missing", patch, "name"))
+          .isInstanceOf(EntityNotFoundException.class);
+    } finally {
+      ReflectionTestUtils.setField(target, "atomicPatch", false);
+    }
+  }
+
+  @Test
+  public void shouldRunThePreUpdateCheckOnAtomicPatches() throws Exception {
+    User saved = userService.insertOne(user(1));
+    Object target = AopTestUtils.getUltimateTargetObject(userService);
+    ReflectionTestUtils.setField(target, "atomicPatch", true);
+    ReflectionTestUtils.setField(target, "rejectedName", "Rejected");
+    try {
+      User patch = User.builder().name("Rejected").build();
+
+      assertThatThrownBy(() -> userService.patchUpdateOneById(saved.getId(), patch, "name"))
+          .isInstanceOf(EntityInvalidException.class);
+      assertThat(userService.findOneById(saved.getId()).orElseThrow().getName())
+          .isEqualTo(saved.getName());
+    } finally {
+      ReflectionTestUtils.setField(target, "atomicPatch", false);
+      ReflectionTestUtils.setField(target, "rejectedName", null);
+    }
+  }
+
+  @Test
+  public void shouldWriteOnlyTheChangedPathsOnDiffUpdate() throws Exception {
+    User saved = userService.insertOne(user(1));
+    Object target = AopTestUtils.getUltimateTargetObject(userService);
+    ReflectionTestUtils.setField(target, "diffUpdate", true);
+    try {
+      User unchanged = user(1);
+      userService.updateOneById(saved.getId(), unchanged);
+      assertThat(userService.findOneById(saved.getId()).orElseThrow().getDateModified())
+          .isEqualTo(saved.getDateModified());
+
+      User changed = user(1);
+      changed.getAddress().setCity("Mumbai");
+      changed.setTags(null);
+      userService.updateOneById(saved.getId(), changed);
+
+      User updated = userService.findOneById(saved.getId()).orElseThrow();
+      assertThat(updated.getAddress().getCity()).isEqualTo("Mumbai");
+      assertThat(updated.getAddress().getState()).isEqualTo("state1");
+      assertThat(updated.getTags()).isNull();
+      assertThat(updated.getSlug()).isEqualTo(saved.getSlug());
+      assertThat(updated.getDateCreated()).isEqualTo(saved.getDateCreated());
+      assertThat(userService.findAllList()).hasSize(1);
+    } finally {
+      ReflectionTestUtils.setField(target, "diffUpdate", false);
+    }
+  }
+
+  @Test
+  public void shouldDiffAgainstTheStoredDocumentNotAStaleCachedCopy() throws Exception {
+    Object target = AopTestUtils.getUltimateTargetObject(userService);
+    ReflectionTestUtils.setField(target, "diffUpdate", true);
+    ReflectionTestUtils.setField(target, "cacheEnabled", true);
+    try {
+      User saved = userService.insertOne(user(1));
+      assertThat(userService.findOneById(saved.getId())).isPresent();
+      mongo.updateFirst(Query.query(Criteria.where("_id").is(saved.getId())),
+          new Update().set("name", "Renamed elsewhere"), User.class);
+      assertThat(userService.findOneById(saved.getId()).orElseThrow().getName())
+          .isEqualTo("Name1");
+
+      userService.updateOneById(saved.getId(), user(1));
+
+      assertThat(mongo.findById(saved.getId(), User.class).getName()).isEqualTo("Name1");
+    } finally {
+      ReflectionTestUtils.setField(target, "diffUpdate", false);
+      ReflectionTestUtils.setField(target, "cacheEnabled", false);
+    }
+  }
+
+  @Test
+  public void shouldApplyFieldOperationsInOneUpdate() throws Exception {
+    User saved = userService.insertOne(user(2));
+    userService.insertOne(user(4));
+
+    User updated = userService.patchUpdateOneById(saved.getId(),
+        List.of(FieldOperation.of("customId", FieldOperator.INC, 5),
+            FieldOperation.of("tags", FieldOperator.ADD_TO_SET, "2"),
+            FieldOperation.of("address.city", FieldOperator.SET, "Pune")));
+
+    assertThat(updated.getCustomId()).isEqualTo(7L);
+    assertThat(updated.getTags()).containsExactly("2");
+    assertThat(updated.getAddress().getCity()).isEqualTo("Pune");
+    assertThat(updated.getName()).isEqualTo("Name2");
+
+    long matched = userService.bulkPatchUpdateByCriteria(Criteria.where("flag").is(true),
+        List.of(FieldOperation.of("tags", FieldOperator.PUSH, "x")));
+    assertThat(matched).isEqualTo(2);
+    assertThat(userService.findAllList()).allMatch(user -> user.getTags().contains("x"));
+  }
+
+  @Test
+  public void shouldRejectFieldOperationsOnReservedFields() throws Exception {
+    User saved = userService.insertOne(user(1));
+
+    for (String field : List.of("id", "_id", "version", "deleted", "dateDeleted", "dateCreated",
+        "createdBy", "dateModified", "lastModifiedBy")) {
+      assertThatThrownBy(() -> userService.patchUpdateOneById(saved.getId(),
+          List.of(FieldOperation.of(field, FieldOperator.SET, 1))))
+              .isInstanceOf(BaseRuntimeException.class);
+    }
+    assertThatThrownBy(() -> userService.bulkPatchUpdateByCriteria(Criteria.where("flag").is(true),
+        List.of(FieldOperation.of("version", FieldOperator.INC, 1))))
+            .isInstanceOf(BaseRuntimeException.class);
+    assertThat(userService.findOneById(saved.getId()).orElseThrow().getDateModified())
+        .isEqualTo(saved.getDateModified());
+  }
+
+  @Test
+  public void shouldRejectUpdatesCarryingAStaleVersion() throws Exception {
+    User saved = userService.insertOne(user(1));
+    Object target = AopTestUtils.getUltimateTargetObject(userService);
+    ReflectionTestUtils.setField(target, "optimisticLocking", true);
+    try {
+      User first = user(1);
+      first.setName("First");
+      assertThat(userService.updateOneById(saved.getId(), first).getVersion()).isEqualTo(1L);
+
+      User stale = user(1);
+      stale.setName("Stale");
+      stale.setVersion(0L);
+      assertThatThrownBy(() -> userService.updateOneById(saved.getId(), stale))
+          .isInstanceOf(EntityConflictException.class);
+
+      User patched = userService.patchUpdateOneById(saved.getId(),
+          List.of(FieldOperation.of("customId", FieldOperator.INC, 1)));
+      assertThat(patched.getName()).isEqualTo("First");
+      assertThat(patched.getVersion()).isEqualTo(2L);
+    } finally {
+      ReflectionTestUtils.setField(target, "optimisticLocking", false);
+    }
+  }
+
   @Test
   public void shouldFilterOnDate() throws EntityAlreadyExistsException, EntityInvalidException {
     mongo.save(Role.builder().name("ADMIN").group("READ_WRITE").slug("R1").build(), "role");
@@ -113,6 +395,257 @@ public class UserServiceTest extends ApplicationTests {
     userAssert(list.get(0), list.get(0).getCustomId().intValue());
   }
 
+  @Test
+  public void shouldPageWithKeysetCursor()
+      throws EntityAlreadyExistsException, EntityInvalidException {
+    for (int i = 1; i <= 10; i++) {
+      userService.insertOne(user(i));
+    }
+
+    FilterRequestDto filters = FilterRequestDto.builder().size(4)
+        .paginationMode(PaginationMode.KEYSET)
+        .sortModel(List.of(SortModel.builder().colId("customId").sort(Direction.DESC).build()))
+        .build();
+
+    List<User> users = new ArrayList<>();
+    String cursor;
+    do {
+      FilterResultPage<User> page =
+          (FilterResultPage<User>) userService.filterByFilterRequestDto(filters);
+      assertThat(page.isTotalExact()).isFalse();
+      users.addAll(page.getContent());
+      cursor = page.getNextCursor();
+      filters.setAfter(cursor);
+    } while (cursor != null);
+
+    assertThat(users).extracting(User::getCustomId).containsExactly(10L, 9L, 8L, 7L, 6L, 5L, 4L,
+        3L, 2L, 1L);
+
+    filters.setAfter(null);
+    filters.setCountStrategy(CountStrategy.EXACT);
+    FilterResultPage<User> counted =
+        (FilterResultPage<User>) userService.filterByFilterRequestDto(filters);
+    assertThat(counted.getTotalElements()).isEqualTo(10);
+    assertThat(counted.isTotalExact()).isTrue();
+  }
+
+  @Test
+  public void shouldRejectKeysetCursorsCarryingQueryOperators()
+      throws EntityAlreadyExistsException, EntityInvalidException {
+    userService.insertOne(user(1));
+    String json = "{\"k\": [\"customId:DESC\", \"id:DESC\"],"
+        + " \"v\": [{\"$ne\": null}, {\"$ne\": null}]}";
+    FilterRequestDto filters = FilterRequestDto.builder().size(4)
+        .sortModel(List.of(SortModel.builder().colId("customId").sort(Direction.DESC).build()))
+        .after(Base64.getUrlEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8)))
+        .build();
+
+    assertThatThrownBy(() -> userService.filterByFilterRequestDto(filters))
+        .isInstanceOf(BaseRuntimeException.class);
+  }
+
+  @Test
+  public void shouldPageWithoutCounting()
+      throws EntityAlreadyExistsException, EntityInvalidException {
+    for (int i = 1; i <= 10; i++) {
+      userService.insertOne(user(i));
+    }
+
+    FilterRequestDto filters =
+        FilterRequestDto.builder().page(0).size(4).countStrategy(CountStrategy.NONE).build();
+    FilterResultPage<User> page =
+        (FilterResultPage<User>) userService.filterByFilterRequestDto(filters);
+    assertThat(page.getContent()).hasSize(4);
+    assertThat(page.hasNext()).isTrue();
+    assertThat(page.isTotalExact()).isFalse();
+
+    filters.setPage(2);
+    page = (FilterResultPage<User>) userService.filterByFilterRequestDto(filters);
+    assertThat(page.getContent()).hasSize(2);
+    assertThat(page.getTotalElements()).isEqualTo(10);
+    assertThat(page.isTotalExact()).isTrue();
+  }
+
+  @Test
+  public void shouldProjectIncludedFields()
+      throws EntityAlreadyExistsException, EntityInvalidException {
+    User saved = userService.insertOne(user(1));
+
+    FilterRequestDto filters =
+        FilterRequestDto.builder().page(0).size(10).includeFields(List.of("email")).build();
+    User user = userService.filterByFilterRequestDto(filters).getContent().get(0);
+    assertThat(user.getEmail()).isEqualTo(saved.getEmail());
+    assertThat(user.getName()).isNull();
+
+    user = userService.findOneBySlug(saved.getSlug(), List.of("name")).get();
+    assertThat(user.getName()).isEqualTo(saved.getName());
+    assertThat(user.getEmail()).isNull();
+  }
+
+  @Test
+  public void shouldSearchByPrefix()
+      throws EntityAlreadyExistsException, EntityInvalidException {
+    for (int i = 1; i <= 10; i++) {
+      userService.insertOne(user(i));
+    }
+
+    FilterRequestDto filters = FilterRequestDto.builder().page(0).size(20)
+        .filterModel(Map.of("search", SearchColumnFilter.builder().filter("Name1")
+            .fields(List.of("name", "email")).slugExcludedFromSearch(true).build()))
+        .build();
+    Page<User> page = userService.filterByFilterRequestDto(filters);
+    assertThat(page.getContent()).extracting(User::getName)
+        .containsExactlyInAnyOrder("Name1", "Name10");
+  }
+
+  @Test
+  public void shouldSearchTheTextIndexAndRejectSearchFields()
+      throws EntityAlreadyExistsException, EntityInvalidException {
+    for (int i = 1; i <= 10; i++) {
+      userService.insertOne(user(i));
+    }
+    mongo.indexOps(User.class)
+        .createIndex(new TextIndexDefinitionBuilder().onField("name").build());
+    Object target = AopTestUtils.getUltimateTargetObject(userService);
+    ReflectionTestUtils.setField(target, "searchStrategy", SearchStrategy.TEXT_INDEX);
+    try {
+      FilterRequestDto filters = FilterRequestDto.builder().page(0).size(20)
+          .filterModel(Map.of("search", SearchColumnFilter.builder().filter("Name1").build()))
+          .build();
+      assertThat(userService.filterByFilterRequestDto(filters).getContent())
+          .extracting(User::getName).containsExactly("Name1");
+
+      FilterRequestDto withFields = FilterRequestDto.builder().page(0).size(20)
+          .filterModel(Map.of("search",
+              SearchColumnFilter.builder().filter("Name1").fields(List.of("email")).build()))
+          .build();
+      assertThatThrownBy(() -> userService.filterByFilterRequestDto(withFields))
+          .isInstanceOf(BaseRuntimeException.class);
+    } finally {
+      ReflectionTestUtils.setField(target, "searchStrategy", SearchStrategy.PREFIX);
+    }
+  }
+
+  @Test
+  public void shouldFindAllByIdsInRequestedOrder()
+      throws EntityAlreadyExistsException, EntityInvalidException {
+    List<User> users = new ArrayList<>();
+    for (int i = 1; i <= 5; i++) {
+      users.add(userService.insertOne(user(i)));
+    }
+
+    List<String> ids = List.of(users.get(3).getId(), "missing", users.get(0).getId(),
+        users.get(3).getId());
+    Map<String, User> found = userService.findAllByIds(ids);
+    assertThat(found.keySet()).containsExactly(users.get(3).getId(), users.get(0).getId());
+
+    Map<String, User> bySlug =
+        userService.findAllBySlugs(List.of(users.get(2).getSlug(), users.get(1).getSlug()));
+    assertThat(bySlug.values()).extracting(User::getName).containsExactly("Name3", "Name2");
+  }
+
+  @Test
+  public void shouldStreamByFilterRequestDto()
+      throws EntityAlreadyExistsException, EntityInvalidException {
+    for (int i = 1; i <= 10; i++) {
+      userService.insertOne(user(i));
+    }
+
+    FilterRequestDto filters = FilterRequestDto.builder()
+        .sortModel(List.of(SortModel.builder().colId("customId").sort(Direction.ASC).build()))
+        .build();
+    try (Stream<User> users = userService.streamByFilterRequestDto(filters)) {
+      assertThat(users.map(User::getCustomId)).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L,
+          9L, 10L);
+    }
+  }
+
+  @Test
+  public void shouldImportCsvReportingEachFailedRow()
+      throws EntityAlreadyExistsException, EntityInvalidException {
+    User stored = userService.insertOne(user(1));
+    User removed = userService.insertOne(user(2));
+    String csv = "email,name,customId,address.city,operation,unknown\n"
+        + "email1@gmail.com,Renamed,1,Delhi,,x\n"
+        + "email3@gmail.com,Name3,3,Pune,upsert,x\n"
+        + "email4@gmail.com,Name4,four,,,x\n"
+        + ",,,,purge,x\n";
+    String deletes = "slug,operation\n" + removed.getSlug() + ",DELETE\nMISSING,DELETE\n";
+
+    List<ImportRowReport> reports = new ArrayList<>();
+    ImportSummary summary = userService.importCsv(new StringReader(csv), reports::add);
+    ImportSummary deleted = userService.importCsv(new StringReader(deletes), reports::add);
+
+    assertThat(summary.getRows()).isEqualTo(4);
+    assertThat(summary.getCreated()).isEqualTo(1);
+    assertThat(summary.getUpdated()).isEqualTo(1);
+    assertThat(summary.getInvalid()).isEqualTo(2);
+    assertThat(deleted.getDeleted()).isEqualTo(1);
+    assertThat(deleted.getIgnored()).isEqualTo(1);
+    assertThat(reports).extracting(ImportRowReport::getRow, ImportRowReport::getType)
+        .containsExactly(tuple(1L, UploadErrorType.WARNING), tuple(4L, UploadErrorType.ERROR),
+            tuple(5L, UploadErrorType.ERROR), tuple(3L, UploadErrorType.WARNING));
+    User updated = userService.findOneById(stored.getId()).orElseThrow();
+    assertThat(updated.getName()).isEqualTo("Renamed");
+    assertThat(updated.getAddress().getCity()).isEqualTo("Delhi");
+    assertThat(updated.getAddress().getState()).isEqualTo("state1");
+    assertThat(updated.getGender()).isEqualTo(stored.getGender());
+    assertThat(updated.getRoleSlug()).isEqualTo("R1");
+    assertThat(updated.getSlug()).isEqualTo(stored.getSlug());
+    assertThat(userService.findOneById(removed.getId())).isEmpty();
+  }
+
+  @Test
+  public void shouldRejectImportRowsWhoseOperationIsNotAllowed()
+      throws EntityAlreadyExistsException, EntityInvalidException {
+    User stored = userService.insertOne(user(1));
+    String csv = "slug,email,name,operation\n" + stored.getSlug() + ",,,DELETE\n"
+        + ",email2@gmail.com,Name2,\n";
+
+    List<ImportRowReport> reports = new ArrayList<>();
+    ImportSummary summary = userService.importCsv(new StringReader(csv),
+        EnumSet.of(ImportOperation.UPSERT), reports::add);
+
+    assertThat(summary.getDeleted()).isZero();
+    assertThat(summary.getCreated()).isEqualTo(1);
+    assertThat(summary.getInvalid()).isEqualTo(1);
+    assertThat(reports).extracting(ImportRowReport::getRow).containsExactly(2L);
+    assertThat(userService.findOneById(stored.getId())).isPresent();
+  }
+
+  @Test
+  public void shouldDeleteInResumableBatches()
+      throws EntityAlreadyExistsException, EntityInvalidException {
+    List<User> users = new ArrayList<>();
+    for (int i = 1; i <= 25; i++) {
+      users.add(userService.insertOne(user(i)));
+    }
+    Object target = AopTestUtils.getUltimateTargetObject(userService);
+    ReflectionTestUtils.setField(target, "deleteBatchSize", 10);
+    try {
+      String resumeAfter = users.get(4).getId();
+      List<DeleteProgress> progress = new ArrayList<>();
+      DeleteProgress done = userService.bulkDeleteByCriteriaChunked(
+          Criteria.where("roleSlug").is("R2"), resumeAfter, progress::add);
+
+      assertThat(done.getDeleted()).isEqualTo(20);
+      assertThat(done.getBatches()).isEqualTo(2);
+      assertThat(done.isComplete()).isTrue();
+      assertThat(done.getLastId()).isEqualTo(users.get(24).getId());
+      assertThat(progress).extracting(DeleteProgress::getDeleted).containsExactly(10L, 20L, 20L);
+      assertThat(userService.findAllList()).extracting(User::getName)
+          .containsExactlyInAnyOrder("Name1", "Name2", "Name3", "Name4", "Name5");
+
+      ReflectionTestUtils.setField(target, "chunkedDeleteThreshold", 2);
+      List<String> slugs = users.subList(0, 5).stream().map(User::getSlug).toList();
+      assertThat(userService.bulkDeleteBySlug(slugs)).isEqualTo(5);
+      assertThat(userService.findAllList()).isEmpty();
+    } finally {
+      ReflectionTestUtils.setField(target, "deleteBatchSize", 1000);
+      ReflectionTestUtils.setField(target, "chunkedDeleteThreshold", 10000);
+    }
+  }
+
   private User user(int i) {
     Address address =
         Address.builder().city("city" + i).state("state" + i).country("country" + i).build();